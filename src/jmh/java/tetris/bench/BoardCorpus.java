@@ -0,0 +1,98 @@
+package tetris.bench;
+
+import tetris.GameEngine;
+import tetris.PlacementSearch;
+import tetris.ShapeType;
+import tetris.TetrisGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// 基准测试用的固定局面集合（boards.txt）
+// 局面是录下来的文件而不是每次现场生成的，这样 AI 逻辑改变后不同版本的测试结果仍可比较
+// 每行格式: <方块类型> <第 0 行掩码>,<第 1 行掩码>,...（十六进制，自上而下）
+public final class BoardCorpus {
+
+    public static final String RESOURCE = "/boards.txt";
+
+    private final List<int[]> boards = new ArrayList<>();
+    private final List<ShapeType> pieces = new ArrayList<>();
+
+    private BoardCorpus() {
+    }
+
+    public static BoardCorpus load() {
+        BoardCorpus corpus = new BoardCorpus();
+        try (InputStream in = BoardCorpus.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(RESOURCE + " not found on classpath");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\\s+");
+                String[] hex = parts[1].split(",");
+                int[] masks = new int[hex.length];
+                for (int i = 0; i < hex.length; i++) {
+                    masks[i] = Integer.parseInt(hex[i], 16);
+                }
+                corpus.pieces.add(ShapeType.valueOf(parts[0]));
+                corpus.boards.add(masks);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return corpus;
+    }
+
+    public int size() {
+        return boards.size();
+    }
+
+    public ShapeType getPiece(int index) {
+        return pieces.get(index);
+    }
+
+    // 把第 index 个局面载入到 grid 中
+    public void loadInto(int index, TetrisGrid grid) {
+        grid.setRowMasks(boards.get(index));
+    }
+
+    // 重新录制：用种子固定的对局，每隔 interval 个方块记录一次局面
+    // 用法: BoardCorpus [count] [interval] > src/jmh/resources/boards.txt
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int interval = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        PrintStream out = System.out;
+        out.println("# Recorded by tetris.bench.BoardCorpus " + count + " " + interval);
+        out.println("# <piece> <row masks top to bottom, hex, bit c = column c>");
+
+        PlacementSearch player = new PlacementSearch();
+        int recorded = 0;
+        for (long seed = 1; recorded < count; seed++) {
+            GameEngine engine = new GameEngine(seed);
+            while (!engine.isGameOver() && recorded < count) {
+                if (engine.getPiecesPlaced() > 0 && engine.getPiecesPlaced() % interval == 0) {
+                    StringBuilder line = new StringBuilder(engine.getCurrentTetromino().getType().name()).append(' ');
+                    TetrisGrid grid = engine.getGrid();
+                    for (int row = 0; row < grid.getRows(); row++) {
+                        if (row > 0) line.append(',');
+                        line.append(Integer.toHexString(grid.getRowMask(row)));
+                    }
+                    out.println(line);
+                    recorded++;
+                }
+                player.playPiece(engine);
+            }
+        }
+    }
+}
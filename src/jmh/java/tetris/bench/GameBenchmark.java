@@ -0,0 +1,55 @@
+package tetris.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tetris.GameEngine;
+import tetris.HeadlessPlayer;
+import tetris.PlacementSearch;
+
+import java.util.concurrent.TimeUnit;
+
+// 端到端：无界面对局中每秒能放下多少个方块（一次操作 = AI 决策 + 落下一个方块）
+// 游戏结束后用下一个种子开新局，所以开局的分配也会计入
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    private HeadlessPlayer player;
+    private GameEngine engine;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        player = new PlacementSearch();
+        engine = newGame(seed);
+    }
+
+    @Benchmark
+    public int piecesPerSecond() {
+        if (engine.isGameOver()) {
+            engine = newGame(++seed);
+        }
+        player.playPiece(engine);
+        return engine.getPiecesPlaced();
+    }
+
+    private static GameEngine newGame(long seed) {
+        GameEngine engine = new GameEngine(seed);
+        // 和 SimulationRunner 一样，没有其他线程读局面
+        engine.setPublishSnapshots(false);
+        return engine;
+    }
+}
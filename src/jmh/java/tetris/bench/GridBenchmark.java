@@ -0,0 +1,113 @@
+package tetris.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tetris.GameEngine;
+import tetris.TetrisGrid;
+import tetris.Tetromino;
+
+import java.util.concurrent.TimeUnit;
+
+// TetrisGrid 的基本操作：碰撞检测、锁定、消行
+// 每次调用换一个录制局面，避免分支预测只记住同一块棋盘
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    private TetrisGrid[] boards;
+    private Tetromino[] pieces;
+    private int[] landingRows;
+    private TetrisGrid scratch;
+    private TetrisGrid fourLines;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BoardCorpus corpus = BoardCorpus.load();
+        boards = new TetrisGrid[corpus.size()];
+        pieces = new Tetromino[corpus.size()];
+        landingRows = new int[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++) {
+            boards[i] = new TetrisGrid(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS);
+            corpus.loadInto(i, boards[i]);
+            pieces[i] = new Tetromino(corpus.getPiece(i), i);
+            // 从出生点直接落下，得到锁定用的行号
+            int y = pieces[i].getY();
+            while (boards[i].isValidMove(pieces[i], pieces[i].getX(), y + 1)) {
+                y++;
+            }
+            landingRows[i] = y;
+        }
+        scratch = new TetrisGrid(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS);
+
+        // 底部 4 行已满、上面有零散方块的局面，用来测消行
+        int[] masks = new int[GameEngine.DEFAULT_ROWS];
+        int full = scratch.getFullRowMask();
+        for (int row = GameEngine.DEFAULT_ROWS - 4; row < GameEngine.DEFAULT_ROWS; row++) {
+            masks[row] = full;
+        }
+        masks[GameEngine.DEFAULT_ROWS - 5] = 0x2F5;
+        masks[GameEngine.DEFAULT_ROWS - 6] = 0x0C1;
+        fourLines = new TetrisGrid(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS);
+        fourLines.setRowMasks(masks);
+    }
+
+    private int next() {
+        int i = index + 1;
+        if (i == boards.length) i = 0;
+        index = i;
+        return i;
+    }
+
+    // 在出生点到落点之间的每一行做碰撞检测
+    @Benchmark
+    public int isValidMove() {
+        int i = next();
+        TetrisGrid board = boards[i];
+        Tetromino piece = pieces[i];
+        int valid = 0;
+        for (int y = 0; y <= landingRows[i] + 1; y++) {
+            if (board.isValidMove(piece, piece.getX(), y)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public TetrisGrid copyFrom() {
+        scratch.copyFrom(boards[next()]);
+        return scratch;
+    }
+
+    // 包含一次 copyFrom，可以减去上面的 copyFrom 结果
+    @Benchmark
+    public TetrisGrid lockTetromino() {
+        int i = next();
+        scratch.copyFrom(boards[i]);
+        Tetromino piece = pieces[i];
+        piece.setPosition(piece.getX(), landingRows[i]);
+        scratch.lockTetromino(piece);
+        return scratch;
+    }
+
+    // 包含一次 copyFrom
+    @Benchmark
+    public int clearFullLines() {
+        scratch.copyFrom(fourLines);
+        return scratch.clearFullLines();
+    }
+}
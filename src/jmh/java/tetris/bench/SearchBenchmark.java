@@ -0,0 +1,97 @@
+package tetris.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tetris.GameEngine;
+import tetris.LinearEvaluator;
+import tetris.LookaheadSearch;
+import tetris.Move;
+import tetris.PlacementSearch;
+import tetris.ShapeType;
+import tetris.TetrisGrid;
+import tetris.Tetromino;
+import tetris.TranspositionTable;
+
+import java.util.concurrent.TimeUnit;
+
+// 单个方块的最佳落点搜索，局面来自录制的 boards.txt
+// 用 -prof gc 跑时 gc.alloc.rate.norm 应该是 0 B/op：每个候选、每次决策都不分配内存
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    private TetrisGrid[] boards;
+    private Tetromino[] pieces;
+    private PlacementSearch search;
+    private LookaheadSearch lookahead;
+    private TranspositionTable table;
+    private ShapeType[] preview;
+    private byte[] inputs;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BoardCorpus corpus = BoardCorpus.load();
+        boards = new TetrisGrid[corpus.size()];
+        pieces = new Tetromino[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++) {
+            boards[i] = new TetrisGrid(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS);
+            corpus.loadInto(i, boards[i]);
+            pieces[i] = new Tetromino(corpus.getPiece(i), i);
+        }
+        search = new PlacementSearch();
+        // 预算给足，每次都完整搜到第 3 层，测的是固定的工作量
+        lookahead = new LookaheadSearch(new LinearEvaluator(), 3, LookaheadSearch.DEFAULT_BEAM_WIDTH, Long.MAX_VALUE / 4);
+        table = lookahead.getTranspositionTable();
+        // 预览用录制局面里后面几个方块
+        preview = new ShapeType[GameEngine.DEFAULT_PREVIEW];
+        for (int i = 0; i < preview.length; i++) {
+            preview[i] = corpus.getPiece((i + 1) % corpus.size());
+        }
+        inputs = new byte[Move.maxInputs(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS)];
+    }
+
+    @Benchmark
+    public long bestMove() {
+        int i = next();
+        return search.findMove(boards[i], pieces[i], inputs);
+    }
+
+    // 三层前瞻 + 暂存，每次都从空的置换表开始：不清的话语料循环一圈之后每个局面都在表里，测到的只是查表
+    // 清表在计时之内（不用 @Setup(Level.Invocation)，它对毫秒级以下的调用本身就有误差和分配），
+    // 单独的开销见 clearTable，搜索本身的时间是两者之差
+    @Benchmark
+    public long lookaheadMove() {
+        int i = next();
+        Tetromino piece = pieces[i];
+        table.clear();
+        return lookahead.findMove(boards[i], piece.getType(), piece.getRotation(), piece.getX(), piece.getY(),
+                preview, preview.length, null, true, System.nanoTime() + Long.MAX_VALUE / 4, inputs);
+    }
+
+    // lookaheadMove 里清空置换表的那部分开销
+    @Benchmark
+    public void clearTable() {
+        table.clear();
+    }
+
+    private int next() {
+        int i = index + 1;
+        if (i == boards.length) i = 0;
+        index = i;
+        return i;
+    }
+}
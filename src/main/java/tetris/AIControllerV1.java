@@ -1,57 +1,74 @@
 package tetris;
 
-import javafx.application.Platform;
-
-import java.sql.Time;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
-
-
-public class AIControllerV1 implements Runnable{
-    private boolean running = true;
-    private int currentId = -1;
-    private Tetromino currentTetromino ;
-    private int[][] currentGrid;
-    private int highest;
-    private boolean isRunning = true;
-    private boolean isPaused = false;
-
-    public static class DestinationResult {
-        public int[] bestMove;
-        public List<Integer> bestMovement;
-
-        public DestinationResult(int[] bestMove, List<Integer> bestMovement) {
-            this.bestMove = bestMove;
-            this.bestMovement = bestMovement;
-        }
-
-        public int[] getBestMove() {
-            return bestMove;
-        }
-
-        public List<Integer> getBestMovement() {
-            return bestMovement;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+
+// AI 线程：事件驱动，不再每秒轮询
+// 1. 新方块出场时，引擎线程（JavaFX 主线程）把局面快照放进无锁队列并唤醒 AI 线程
+// 2. AI 线程在自己的线程里做完整的搜索，不阻塞 JavaFX 主线程；默认把一次决策的子树拆给公共 ForkJoin 池并行搜索
+// 3. 只把最终的输入序列（最后补一个硬降）放进引擎的 AI 输入队列，引擎下一次 tick 时执行
+//    执行每一步前引擎确认还是同一个方块、并且还在计划预期的位置，思考期间被重力挪动过的方块不按过时的计划走
+public class AIControllerV1 implements Runnable, SpawnListener {
+    // 思考时间占一个下落间隔的比例：方块下落一格之前要给出答案，剩下的留给执行输入
+    private static final double THINK_FRACTION = 0.5;
+    // 快进时思考时间按倍速缩短，但至少给这么多
+    private static final long MIN_THINK_NANOS = 1_000_000L;
+
+    private final GameEngine engine;
+    private final LookaheadSearch search;
+    private final ConcurrentLinkedQueue<SpawnEvent> events = new ConcurrentLinkedQueue<>();
+    private volatile Thread worker;
+    private volatile boolean isRunning = true;
+    private boolean isPaused = false;   // 受 this 的监视器保护
+    private TetrisGrid board;           // AI 线程自己的局面副本
+    private volatile double timeScale = 1.0;       // 模拟时间相对真实时间的倍速
+    private volatile int decidedPieceId = -1;      // 最近一个已经给出决策（输入已经入队）的方块
+
+    public AIControllerV1(GameEngine engine) {
+        this(engine, defaultSearch());
+    }
+
+    public AIControllerV1(GameEngine engine, LookaheadSearch search) {
+        this.engine = engine;
+        this.search = search;
+    }
+
+    private static LookaheadSearch defaultSearch() {
+        EvaluatorWeights weights = EvaluatorWeights.loadDefault();
+        return new ParallelLookaheadSearch(() -> new LinearEvaluator(weights), ForkJoinPool.commonPool());
+    }
+
+    // 在引擎线程里调用：只拍快照、入队、唤醒，不做任何搜索
+    @Override
+    public void onSpawn(GameEngine engine) {
+        events.offer(new SpawnEvent(engine));
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
         }
-
     }
 
     @Override
     public void run() {
+        worker = Thread.currentThread();
         try {
-            while (running) {
-                Thread.sleep(1000);
-                getCurrentInfo();
-                Platform.runLater(() -> { // 在 JavaFX 主线程上更新 UI
-                    if (currentTetromino.getId() != currentId) {
-                        currentId = currentTetromino.getId();
-                        moveToBestDestination();
-                    }
-                });
+            while (isRunning) {
+                awaitResume();
+                SpawnEvent event = latestEvent();
+                if (event == null) {
+                    // 没有新方块：挂起直到 onSpawn/stop/resumeAI 唤醒
+                    LockSupport.park(this);
+                    continue;
+                }
+                Placement placement = decide(event);
+                if (placement != null && isRunning) {
+                    submit(event.getPieceId(), placement);
+                }
+                decidedPieceId = event.getPieceId();
             }
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -60,6 +77,7 @@ public class AIControllerV1 implements Runnable{
         isRunning = false;
         // 为了避免AI阻塞在 wait 状态，先把 isPaused 设为 false 并调用 notify
         setPaused(false);
+        wakeUp();
     }
 
     // 外部调用，暂停 AI
@@ -71,249 +89,79 @@ public class AIControllerV1 implements Runnable{
     private synchronized void setPaused(boolean paused) {
         this.isPaused = paused;
         if (!isPaused) {
-            notify(); // 唤醒在 wait() 中阻塞的线程
+            notifyAll(); // 唤醒在 wait() 中阻塞的线程
         }
     }
 
     // 外部调用，恢复 AI
     public void resumeAI() {
         setPaused(false);
+        wakeUp();
     }
 
-    private void getCurrentInfo() {
-        currentGrid = TetrisMain.getCurrentGrid();
-        currentTetromino = TetrisMain.getCurrentTetromino();
-    }
-
-    private void moveToBestDestination() {
-        // bestMove 存储最优解的 (row, col)
-        //   row = bestMove[0], col = bestMove[1]
-        // 初始化时先给它一个极小值或非法值
-        int[] bestMove = {-1, -1};
-
-        // 用于存储最优解对应的形状矩阵 & 移动序列
-        int[][] bestShape = copyMatrix(currentTetromino.getShapeMatrix());
-        List<Integer> bestMovement = new ArrayList<>();
-
-        // 这个是“当前最好的左下角行号”，我们想要尽量大
-        int bestBottom = -1;
-
-        // 这个是“当前最好的移动序列长度”，如果底边行号一样才比较步数
-        int bestMoveSteps = Integer.MAX_VALUE;
-
-        // 先取一个副本出来，以便在循环里做旋转尝试
-        int[][] rotatedShape = copyMatrix(currentTetromino.getShapeMatrix());
-
-        // 尝试 0~3 次旋转
-        for (int i = 0; i < 4; i++) {
-            // 让 AI 算出在此形状朝向下的最佳落点
-            DestinationResult destinationResult = getBestDestination(rotatedShape);
-            int[] move = destinationResult.getBestMove();          // (row, col)
-            List<Integer> tempMovement = destinationResult.getBestMovement();
-
-            // 如果 getBestDestination 返回的 move 是无效值(例如 row < 0)，可做跳过
-            // 这里示例假设如果 row = -1, 表示无效
-            if (move[0] < 0) {
-                // 说明这次旋转形状无法放置到任何位置
-                // 直接跳过
-            } else {
-                // 计算“当前形状左下角”的行号
-                int currentBottom = move[0] + (rotatedShape.length - 1);
-
-                // 先比谁更“低”（currentBottom 较大者胜）
-                if (currentBottom > bestBottom) {
-                    bestBottom = currentBottom;
-                    bestMove = new int[]{move[0], move[1]};
-                    bestShape = copyMatrix(rotatedShape);
-                    bestMovement = List.copyOf(tempMovement);
-                    bestMoveSteps = tempMovement.size();
-                }
-                // 如果两者 bottom 一样低，则比谁的移动步数更少
-                else if (currentBottom == bestBottom) {
-                    if (tempMovement.size() < bestMoveSteps) {
-                        bestMove = new int[]{move[0], move[1]};
-                        bestShape = copyMatrix(rotatedShape);
-                        bestMovement = List.copyOf(tempMovement);
-                        bestMoveSteps = tempMovement.size();
-                    }
-                    // 如果还想再继续比较“更靠左”或“更靠右”，可在这里再加一层比较
-                }
-            }
-
-            // 把 rotatedShape 再旋转一次
-            rotatedShape = rotateOnce(rotatedShape);
+    private void wakeUp() {
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
         }
-
-        // 最终将最优形状赋值给当前 Tetromino
-        currentTetromino.setShapeMatrix(bestShape);
-
-        // 如果你想真正执行移动或直接把方块摆到最终位置，可以在这里做：
-        // executeMove(bestMovement);
-         currentTetromino.setPosition(bestMove[1], bestMove[0]);
     }
 
-    private DestinationResult getBestDestination(int[][] shape) {
-        int totalRows = currentGrid.length;
-        int totalCols = currentGrid[0].length;
-
-        // shape 本身的高度、宽度
-        int shapeRows = shape.length;
-        int shapeCols = shape[0].length;
-
-        // 用于记录“最佳落点”和“最佳移动序列”
-        // bestMove[0] = 最终 row，bestMove[1] = 最终 col
-        int[] bestMove = new int[]{-1, -1};
-        List<Integer> bestMovement = new ArrayList<>();
-
-        // 用来比较哪个落点“更好”的指标
-        // 这里示例用 “谁放得更低 就更好”
-        int bestRowSoFar = -1;
-
-        // 从左到右遍历列
-        for (int col = 0; col <= totalCols - shapeCols; col++) {
-            // 1) 找到在该 col 下能放到的最底 row
-            int row = findLowestRow(shape, col);
-            if (row < 0) {
-                // 说明在这一列根本放不下，直接跳过
-                continue;
-            }
-
-            // 2) 找到最低点后，尝试看看能否再向左移动
-            int shiftedCol = shiftLeftIfPossible(shape, row, col);
-            // shiftedCol 一般 <= col
-
-            // 3) 这里你还可以再看看是否要向右移动，或者加其它逻辑
-
-            // 4) 评分：如果 row 比之前记录的 bestRowSoFar 更大，则替换
-            if (row > bestRowSoFar) {
-                bestRowSoFar = row;
-                bestMove[0] = row;
-                bestMove[1] = shiftedCol;
-
-                // 生成一条大致可行的移动序列
-                bestMovement = computeMovement(row, shiftedCol);
-            }
+    // 暂停期间真正阻塞在这里
+    private synchronized void awaitResume() throws InterruptedException {
+        while (isPaused && isRunning) {
+            wait();
         }
-
-        // 把结果封装回来
-        return new DestinationResult(bestMove, bestMovement);
     }
 
-    private void printMove(int[][] currentMatrix) {
-        for (int i = 0; i<currentMatrix.length; i++) {
-            for (int j = 0; j < currentMatrix[0].length; j++)
-                System.out.print(currentMatrix[i][j] + " ");
-            System.out.println();
+    // 只处理最新的方块，中间被跳过的方块已经不在场上了
+    private SpawnEvent latestEvent() {
+        SpawnEvent latest = null;
+        SpawnEvent event;
+        while ((event = events.poll()) != null) {
+            latest = event;
         }
+        return latest;
     }
 
-    private int findLowestRow(int[][] shape, int colOffset) {
-        int shapeRows = shape.length;
-        int totalRows = currentGrid.length;
-
-        int bestRow = -1;
-        // rowOffset 的最大值不能超过 totalRows - shapeRows
-        for (int rowOffset = 0; rowOffset <= totalRows - shapeRows; rowOffset++) {
-            if (isValidPlacement(shape, rowOffset, colOffset)) {
-                bestRow = rowOffset;
-                // 先记录下这个 rowOffset。因为要找“最底”，我们不马上 break
-                // 如果想要“第一个可放置点”就可以 break；这里要找“最后一个可放置点”
-            }
-        }
-        return bestRow;
-    }
-
-    private int shiftLeftIfPossible(int[][] shape, int rowOffset, int startCol) {
-        int finalCol = startCol;
-        // 不断地尝试往左移一格
-        while (finalCol > 0) {
-            // 检测左移一格后是否可行
-            if (isValidPlacement(shape, rowOffset, finalCol - 1)) {
-                finalCol--;
-            } else {
-                // 不能再左移了
-                break;
-            }
+    // 在 AI 线程里搜索
+    private Placement decide(SpawnEvent event) {
+        if (board == null || board.getRows() != event.getRows() || board.getCols() != event.getCols()) {
+            board = new TetrisGrid(event.getRows(), event.getCols());
         }
-        return finalCol;
+        // 截止时间从出场时刻算起（包括在队列里等待的时间），随下落速度变化
+        // 快进时按倍速缩短（下落间隔是模拟时间，截止时间是真实时间）
+        long think = Math.max(MIN_THINK_NANOS, (long) (event.getDropIntervalNanos() * THINK_FRACTION / timeScale));
+        long deadline = event.getSpawnNanos() + think;
+        return event.search(search, board, deadline);
     }
 
-    // x , y 表示 shape 左上角坐标
-    private boolean isValidPlacement(int[][] shape, int rowOffset, int colOffset) {
-        for (int r = 0; r < shape.length; r++) {
-            for (int c = 0; c < shape[r].length; c++) {
-                if (shape[r][c] == 1) {
-                    int gridRow = rowOffset + r;
-                    int gridCol = colOffset + c;
-
-                    // 越界
-                    if (gridRow < 0 || gridRow >= currentGrid.length
-                            || gridCol < 0 || gridCol >= currentGrid[0].length) {
-                        return false;
-                    }
-                    // 重叠
-                    if (currentGrid[gridRow][gridCol] == 1) {
-                        return false;
-                    }
-                }
-            }
+    // 模拟时钟的倍速变化时调用，Double.POSITIVE_INFINITY 表示不限速
+    public void setTimeScale(double timeScale) {
+        if (!(timeScale > 0)) {
+            throw new IllegalArgumentException("time scale must be positive, got " + timeScale);
         }
-        return true;
+        this.timeScale = timeScale;
     }
 
-    private List<Integer> computeMovement(int targetRow, int targetCol) {
-        List<Integer> moves = new ArrayList<>();
-
-        // 当前的 row/col 必须和 tetromino.getY()/getX() 保持一致(行=Y,列=X)
-        int currentRow = currentTetromino.getY();
-        int currentCol = currentTetromino.getX();
-
-        // 水平移动到 targetCol
-        while (currentCol < targetCol) {
-            moves.add(+1); // 表示向右
-            currentCol++;
-        }
-        while (currentCol > targetCol) {
-            moves.add(-1); // 表示向左
-            currentCol--;
-        }
-
-        // 垂直移动到 targetRow
-        while (currentRow < targetRow) {
-            moves.add(0);  // 表示向下
-            currentRow++;
-        }
-
-        return moves;
+    // 在引擎线程里调用：AI 还没给出当前方块的决策。模拟时钟据此停住，快进时方块不会在 AI 思考期间落下
+    public boolean isDeciding() {
+        return isRunning && !engine.isGameOver() && decidedPieceId < engine.getCurrentTetromino().getId();
     }
 
-    private int[][] rotate(int[][] matrix, int times) {
-        int[][] result = matrix;
-        for (int i = 0; i < times; i++) {
-            result = rotateOnce(result);
-        }
-        return result;
+    public LookaheadSearch getSearch() {
+        return search;
     }
 
-    private int[][] rotateOnce(int[][] matrix) {
-        int rows = matrix.length;
-        int cols = matrix[0].length;
-        int[][] rotated = new int[cols][rows];
-
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                rotated[j][rows - i - 1] = matrix[i][j];
+    // 在 AI 线程里把输入序列交给引擎：按最短输入序列真正执行移动（包括暂存），而不是直接把方块传送到落点
+    // 队列满了就丢掉剩下的指令，没走完的方块由重力落下；计划从出场位置算起，过时的由引擎丢掉
+    private void submit(int pieceId, Placement placement) {
+        InputQueue queue = engine.getAiInputs();
+        for (byte input : placement.getInputs()) {
+            if (!queue.offer(GameEngine.aiCommand(pieceId, input))) {
+                return;
             }
         }
-        return rotated;
-    }
-
-    private int[][] copyMatrix(int[][] source) {
-        int[][] copy = new int[source.length][source[0].length];
-        for (int i = 0; i < source.length; i++) {
-            System.arraycopy(source[i], 0, copy[i], 0, source[i].length);
-        }
-        return copy;
+        queue.offer(GameEngine.aiCommand(pieceId, Input.HARD_DROP));
     }
 
 }
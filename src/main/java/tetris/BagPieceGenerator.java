@@ -0,0 +1,50 @@
+package tetris;
+
+import java.util.SplittableRandom;
+
+// 7-bag：把 7 种方块随机排列成一袋，发完再洗下一袋
+// 任意连续 7 个方块里每种最多出现 2 次，同一种方块最多间隔 12 个，和现代俄罗斯方块的规则一致
+public class BagPieceGenerator implements PieceGenerator {
+
+    private final SplittableRandom random;
+    private final ShapeType[] bag = ShapeType.values();
+    private int next = bag.length;   // 下一个要发的下标，等于 bag.length 时需要重新洗牌
+
+    public BagPieceGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public ShapeType next() {
+        if (next == bag.length) {
+            shuffle();
+        }
+        return bag[next++];
+    }
+
+    @Override
+    public void next(ShapeType[] out, int offset, int count) {
+        // 整段从袋子里拷贝，不用逐个调用
+        while (count > 0) {
+            if (next == bag.length) {
+                shuffle();
+            }
+            int n = Math.min(count, bag.length - next);
+            System.arraycopy(bag, next, out, offset, n);
+            next += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    // Fisher-Yates 洗牌
+    private void shuffle() {
+        for (int i = bag.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            ShapeType t = bag[i];
+            bag[i] = bag[j];
+            bag[j] = t;
+        }
+        next = 0;
+    }
+}
@@ -0,0 +1,72 @@
+package tetris;
+
+// 从位棋盘（行掩码）和列高度数组直接算特征，不扫描 int[][]
+// 实例可复用：compute 只覆盖字段，不做分配
+public class BoardFeatures {
+
+    private final int[] values = new int[Feature.values().length];
+
+    public void compute(TetrisGrid grid, int completedLines) {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        int full = grid.getFullRowMask();
+
+        // 列高度：总高度、凹凸度、井深
+        int aggregateHeight = 0;
+        int bumpiness = 0;
+        int wells = 0;
+        int maxHeight = 0;
+        for (int c = 0; c < cols; c++) {
+            int h = grid.getColumnHeight(c);
+            aggregateHeight += h;
+            if (h > maxHeight) maxHeight = h;
+            if (c + 1 < cols) {
+                bumpiness += Math.abs(h - grid.getColumnHeight(c + 1));
+            }
+            // 井：左右两边都更高（墙视为无限高）
+            int left = c == 0 ? rows : grid.getColumnHeight(c - 1);
+            int right = c == cols - 1 ? rows : grid.getColumnHeight(c + 1);
+            int depth = Math.min(left, right) - h;
+            if (depth > 0) wells += depth;
+        }
+
+        // 行掩码：空洞、行/列变换，只看最高列以下的行
+        int holes = 0;
+        int rowTransitions = 0;
+        int columnTransitions = 0;
+        int covered = 0;          // 上方已经出现过方块的列
+        int previous = 0;         // 上一行的掩码（最高行之上视为空）
+        int wallBits = 1 | (1 << (cols + 1));
+        for (int row = rows - maxHeight; row < rows; row++) {
+            int mask = grid.getRowMask(row);
+            holes += Integer.bitCount(covered & ~mask & full);
+            covered |= mask;
+
+            // 左右墙视为已占用，相邻格子状态不同算一次变换
+            int withWalls = (mask << 1) | wallBits;
+            rowTransitions += Integer.bitCount((withWalls ^ (withWalls >>> 1)) & ((1 << (cols + 1)) - 1));
+
+            columnTransitions += Integer.bitCount(mask ^ previous);
+            previous = mask;
+        }
+        // 底部地板视为已占用
+        columnTransitions += Integer.bitCount(~previous & full);
+
+        values[Feature.AGGREGATE_HEIGHT.ordinal()] = aggregateHeight;
+        values[Feature.HOLES.ordinal()] = holes;
+        values[Feature.BUMPINESS.ordinal()] = bumpiness;
+        values[Feature.COMPLETED_LINES.ordinal()] = completedLines;
+        values[Feature.WELLS.ordinal()] = wells;
+        values[Feature.ROW_TRANSITIONS.ordinal()] = rowTransitions;
+        values[Feature.COLUMN_TRANSITIONS.ordinal()] = columnTransitions;
+    }
+
+    public int get(Feature feature) {
+        return values[feature.ordinal()];
+    }
+
+    // 按 Feature 的 ordinal 顺序
+    public int get(int index) {
+        return values[index];
+    }
+}
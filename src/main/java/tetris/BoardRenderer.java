@@ -0,0 +1,170 @@
+package tetris;
+
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+
+// 棋盘的增量绘制：两层画布叠在一起
+// 底层是静态的网格线，只在创建时画一次；上层是格子，透明的地方露出网格线
+// 每一帧先按局面快照和当前方块算出每个格子应该是什么，只重画和上一帧不同的格子，
+// 并且按颜色分批：同一种颜色的格子一次 setFill 之后连续填充，描边也统一一次 setStroke
+// 只能在 JavaFX 主线程里调用
+public class BoardRenderer {
+
+    private static final byte EMPTY = 0;
+    private static final byte LOCKED = 1;
+    private static final byte PIECE = 2;            // PIECE + 方块类型的 ordinal
+    private static final Color LOCKED_COLOR = Color.DARKGRAY;
+    private static final Color GRID_COLOR = Color.DARKGRAY;
+    private static final Color OUTLINE_COLOR = Color.BLACK;
+
+    private final int rows;
+    private final int cols;
+    private final int blockSize;
+    private final Color[] pieceColors;
+    private final StackPane node;
+    private final GraphicsContext cells;
+
+    // 上层画布上现在画着的内容，以及这一帧应该画的内容（每格一个状态）
+    private final byte[] drawn;
+    private final byte[] target;
+    private final int[] changed;
+    // 上一帧画的局面版本和方块，都没变时整帧跳过
+    private long drawnVersion = -1;
+    private long drawnPiece = -1;
+    private int lastRepainted;
+
+    public BoardRenderer(int rows, int cols, int blockSize, Color[] pieceColors) {
+        this.rows = rows;
+        this.cols = cols;
+        this.blockSize = blockSize;
+        this.pieceColors = pieceColors.clone();
+        this.drawn = new byte[rows * cols];
+        this.target = new byte[rows * cols];
+        this.changed = new int[rows * cols];
+
+        Canvas gridLayer = new Canvas(cols * blockSize, rows * blockSize);
+        drawGrid(gridLayer.getGraphicsContext2D());
+        Canvas cellLayer = new Canvas(cols * blockSize, rows * blockSize);
+        this.cells = cellLayer.getGraphicsContext2D();
+        this.node = new StackPane(gridLayer, cellLayer);
+    }
+
+    public Node getNode() {
+        return node;
+    }
+
+    // 画一帧：只重画和上一帧不同的格子
+    public void render(BoardSnapshot board, Tetromino piece) {
+        long pieceKey = pieceKey(piece);
+        if (board.getVersion() == drawnVersion && pieceKey == drawnPiece) {
+            lastRepainted = 0;
+            return;
+        }
+        drawnVersion = board.getVersion();
+        drawnPiece = pieceKey;
+
+        // 1. 目标状态：已锁定的格子来自快照的行掩码，当前方块盖在上面
+        for (int row = 0; row < rows; row++) {
+            int mask = board.getRowMask(row);
+            int base = row * cols;
+            for (int col = 0; col < cols; col++) {
+                target[base + col] = (mask & (1 << col)) != 0 ? LOCKED : EMPTY;
+            }
+        }
+        if (piece != null) {
+            byte state = (byte) (PIECE + piece.getType().ordinal());
+            int[] masks = piece.getRowMasks();
+            for (int r = 0; r < masks.length; r++) {
+                int row = piece.getY() + r;
+                if (row < 0 || row >= rows) continue;
+                int bits = masks[r] << piece.getX();
+                for (int col = 0; col < cols; col++) {
+                    if ((bits & (1 << col)) != 0) {
+                        target[row * cols + col] = state;
+                    }
+                }
+            }
+        }
+
+        // 2. 和画布上现有的内容比较
+        int count = 0;
+        int states = 0;                 // 这一帧用到的状态（第 s 位）
+        for (int i = 0; i < target.length; i++) {
+            if (target[i] != drawn[i]) {
+                changed[count++] = i;
+                states |= 1 << target[i];
+                drawn[i] = target[i];
+            }
+        }
+        lastRepainted = count;
+        if (count == 0) {
+            return;
+        }
+
+        // 3. 按状态分批绘制：先清空变空的格子，再每种颜色一次 setFill，最后统一描边
+        if ((states & (1 << EMPTY)) != 0) {
+            for (int i = 0; i < count; i++) {
+                int cell = changed[i];
+                if (drawn[cell] == EMPTY) {
+                    cells.clearRect(xOf(cell), yOf(cell), blockSize, blockSize);
+                }
+            }
+        }
+        for (int state = LOCKED; state < PIECE + pieceColors.length; state++) {
+            if ((states & (1 << state)) == 0) continue;
+            cells.setFill(state == LOCKED ? LOCKED_COLOR : pieceColors[state - PIECE]);
+            for (int i = 0; i < count; i++) {
+                int cell = changed[i];
+                if (drawn[cell] == state) {
+                    cells.fillRect(xOf(cell), yOf(cell), blockSize, blockSize);
+                }
+            }
+        }
+        if (states != 1 << EMPTY) {
+            // 描边画在格子内侧半个像素，不会渗到相邻格子，单独重画一个格子不会留下残边
+            cells.setStroke(OUTLINE_COLOR);
+            for (int i = 0; i < count; i++) {
+                int cell = changed[i];
+                if (drawn[cell] != EMPTY) {
+                    cells.strokeRect(xOf(cell) + 0.5, yOf(cell) + 0.5, blockSize - 1, blockSize - 1);
+                }
+            }
+        }
+    }
+
+    // 上一帧重画了多少个格子（0 表示整帧跳过）
+    public int getLastRepainted() {
+        return lastRepainted;
+    }
+
+    // 静态网格线，只画一次
+    private void drawGrid(GraphicsContext gc) {
+        gc.setStroke(GRID_COLOR);
+        for (int x = 0; x <= cols * blockSize; x += blockSize) {
+            gc.strokeLine(x, 0, x, rows * blockSize);
+        }
+        for (int y = 0; y <= rows * blockSize; y += blockSize) {
+            gc.strokeLine(0, y, cols * blockSize, y);
+        }
+    }
+
+    private double xOf(int cell) {
+        return (cell % cols) * blockSize;
+    }
+
+    private double yOf(int cell) {
+        return (cell / cols) * blockSize;
+    }
+
+    // 方块的 id、朝向和位置打包在一起，任何一个变了都要重画
+    private static long pieceKey(Tetromino piece) {
+        if (piece == null) {
+            return -1;
+        }
+        return (long) piece.getId() << 32 | piece.getRotation() << 16 | (piece.getX() & 0xFF) << 8
+                | (piece.getY() & 0xFF);
+    }
+}
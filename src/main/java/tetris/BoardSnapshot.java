@@ -0,0 +1,124 @@
+package tetris;
+
+// 不可变的局面快照，带版本号，可以在任意线程无锁读取
+// 每一行的格子数组 (int[cols]) 在相邻版本之间结构共享：格子数组完全由行掩码决定，没变的行直接复用上一版本的数组，
+// 消行后整体下移的行从上一版本里 MAX_SHIFT 行以内找到原来那一行复用，只有真正新出现的行内容才分配新数组
+// 每个版本自己的行掩码数组和行引用数组还是 O(rows) 复制的，原因见 next 的注释
+// 所有返回的数组都是共享的，调用方不得修改
+public final class BoardSnapshot {
+
+    // 一次锁定最多消 4 行，两次发布之间整体下移的行数通常不超过它
+    private static final int MAX_SHIFT = 4;
+
+    private final long version;
+    private final int cols;
+    private final int[] rowMasks;
+    private final int[][] rowCells;
+
+    BoardSnapshot(long version, int cols, int[] rowMasks, int[][] rowCells) {
+        this.version = version;
+        this.cols = cols;
+        this.rowMasks = rowMasks;
+        this.rowCells = rowCells;
+    }
+
+    // 第一个版本，或者没有可以共享的上一个版本
+    static BoardSnapshot of(long version, TetrisGrid grid) {
+        return next(null, version, grid, -1L);
+    }
+
+    // 基于上一个版本构造：dirtyRows 中没有标记的行直接共享（dirtyRows 为 -1 表示全部重新检查）
+    // 开销：新分配的格子数组只和变了的行数成正比，但行掩码数组 int[rows] 和行引用数组 int[rows][] 每次都整份复制，
+    //   所以一次发布是 O(rows) 而不是 O(变化的行数)。有意如此：两个 20 项的小数组换来渲染线程和 AI 线程按行 O(1) 读取；
+    //   要做到只和变化的行数成正比得换成持久化的树，每次读一行都变成 O(log rows)
+    static BoardSnapshot next(BoardSnapshot previous, long version, TetrisGrid grid, long dirtyRows) {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        int[] masks = new int[rows];
+        int[][] cells = new int[rows][];
+        int[] emptyRow = null;
+        for (int row = 0; row < rows; row++) {
+            int mask = grid.getRowMask(row);
+            masks[row] = mask;
+            boolean dirty = previous == null || row >= Long.SIZE || (dirtyRows & (1L << row)) != 0;
+            if (previous != null && (!dirty || previous.rowMasks[row] == mask)) {
+                // 行没变：共享上一版本的格子数组
+                cells[row] = previous.rowCells[row];
+            } else if (mask == 0) {
+                // 空行：整个快照共享同一个全 0 数组
+                if (emptyRow == null) {
+                    emptyRow = previous != null ? previous.findEmptyRow() : null;
+                    if (emptyRow == null) emptyRow = new int[cols];
+                }
+                cells[row] = emptyRow;
+            } else {
+                int[] shifted = previous != null ? previous.findShiftedRow(row, mask) : null;
+                cells[row] = shifted != null ? shifted : expand(mask, cols);
+            }
+        }
+        return new BoardSnapshot(version, cols, masks, cells);
+    }
+
+    // 消行之后第 row 行可能是上一版本第 row - 1 到 row - MAX_SHIFT 行整体下移下来的
+    private int[] findShiftedRow(int row, int mask) {
+        for (int source = row - 1; source >= 0 && source >= row - MAX_SHIFT; source--) {
+            if (rowMasks[source] == mask) {
+                return rowCells[source];
+            }
+        }
+        return null;
+    }
+
+    private static int[] expand(int mask, int cols) {
+        int[] line = new int[cols];
+        for (int col = 0; col < cols; col++) {
+            line[col] = (mask >>> col) & 1;
+        }
+        return line;
+    }
+
+    private int[] findEmptyRow() {
+        // 空行都在上面，从顶部找
+        for (int row = 0; row < rowMasks.length; row++) {
+            if (rowMasks[row] == 0) {
+                return rowCells[row];
+            }
+        }
+        return null;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRows() {
+        return rowMasks.length;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRowMask(int row) {
+        return rowMasks[row];
+    }
+
+    public boolean isOccupied(int row, int col) {
+        return (rowMasks[row] & (1 << col)) != 0;
+    }
+
+    // 某一行的格子 (0 空 / 1 占用)，共享数组，不得修改
+    public int[] getRow(int row) {
+        return rowCells[row];
+    }
+
+    // 兼容 int[][] 的只读视图：外层数组是新的，行数组是共享的
+    public int[][] toGrid() {
+        return rowCells.clone();
+    }
+
+    // 把局面载入到调用方自己的（可变）网格里，例如 AI 线程的搜索网格
+    public void loadInto(TetrisGrid grid) {
+        grid.setRowMasks(rowMasks);
+    }
+}
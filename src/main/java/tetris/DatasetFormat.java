@@ -0,0 +1,102 @@
+package tetris;
+
+// 局面数据集的文件格式（定长记录，按下标直接定位，全部用 ByteBuffer 默认的大端序）
+//   文件头 64 字节: "TDS1" | 版本 1 字节 | rows 1 字节 | cols 1 字节 | 特征个数 1 字节 | 记录长度 int | 记录槽位数 long
+//   每条记录（一个方块的一次决策）:
+//     局面: 锁定前的 rows * cols 位，按行连续打包进 long（第 r 行第 c 列是第 r * cols + c 位）
+//     种子 long | 这一局里的第几个方块 int
+//     最终方块数, 最终消行数, 最终分数 int —— 对局结束后回填
+//     类型, 朝向, x, y, 暂存槽里的方块 (-1 为空), 标志 各 1 字节
+//     落点之后的局面特征，每个 short，按 Feature 的 ordinal 顺序
+//     补齐到 8 字节
+// 文件按段映射，一段不超过 SEGMENT_BYTES，记录不跨段（段长是记录长度的整数倍）
+// 标志为 0 的槽位是空的（对局预留了但没用完），读的时候跳过
+final class DatasetFormat {
+
+    static final int MAGIC = 0x54445331;   // "TDS1"
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int COUNT_OFFSET = 16;
+
+    static final int SEGMENT_BYTES = 1 << 28;
+    // 写入端给一局预留槽位的块大小：从 FIRST_BLOCK 开始翻倍，最大 MAX_BLOCK
+    // 很快就顶死的对局不会留下大片空槽位，长对局每 MAX_BLOCK 个方块才碰一次共享计数器
+    static final int FIRST_BLOCK = 8;
+    static final int MAX_BLOCK = 64;
+
+    static final int FLAG_USED = 1;
+    static final int FLAG_HOLD = 1 << 1;         // 这个方块是暂存换出来的
+    static final int FLAG_FINISHED = 1 << 2;     // 结果已回填
+    static final int FLAG_TOPPED_OUT = 1 << 3;   // 这一局是顶到出生位置结束的，不是跑满方块数截断的
+
+    static final byte NO_PIECE = -1;
+
+    final int rows;
+    final int cols;
+    final int features;
+    final int seedOffset;
+    final int pieceIndexOffset;
+    final int finalPiecesOffset;
+    final int finalLinesOffset;
+    final int finalScoreOffset;
+    final int typeOffset;
+    final int rotationOffset;
+    final int xOffset;
+    final int yOffset;
+    final int holdPieceOffset;
+    final int flagsOffset;
+    final int featuresOffset;
+    final int recordSize;
+    final int recordsPerSegment;
+
+    DatasetFormat(int rows, int cols) {
+        this(rows, cols, Feature.values().length);
+    }
+
+    DatasetFormat(int rows, int cols, int features) {
+        if (rows <= 0 || rows > Byte.MAX_VALUE || cols <= 0 || cols >= Integer.SIZE) {
+            throw new IllegalArgumentException("unsupported board size " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.features = features;
+        int boardWords = (rows * cols + Long.SIZE - 1) / Long.SIZE;
+        seedOffset = boardWords * Long.BYTES;
+        pieceIndexOffset = seedOffset + Long.BYTES;
+        finalPiecesOffset = pieceIndexOffset + Integer.BYTES;
+        finalLinesOffset = finalPiecesOffset + Integer.BYTES;
+        finalScoreOffset = finalLinesOffset + Integer.BYTES;
+        typeOffset = finalScoreOffset + Integer.BYTES;
+        rotationOffset = typeOffset + 1;
+        xOffset = rotationOffset + 1;
+        yOffset = xOffset + 1;
+        holdPieceOffset = yOffset + 1;
+        flagsOffset = holdPieceOffset + 1;
+        featuresOffset = flagsOffset + 1;
+        recordSize = (featuresOffset + features * Short.BYTES + 7) & ~7;
+        recordsPerSegment = SEGMENT_BYTES / recordSize;
+    }
+
+    int segmentOf(long index) {
+        return (int) (index / recordsPerSegment);
+    }
+
+    // 记录在所在段里的字节偏移
+    int offsetInSegment(long index) {
+        return (int) (index % recordsPerSegment) * recordSize;
+    }
+
+    // 第 segment 段在文件里的起始位置
+    long segmentPosition(int segment) {
+        return HEADER_SIZE + (long) segment * recordsPerSegment * recordSize;
+    }
+
+    // 一局的第 block 块有多少个槽位
+    static int blockSize(int block) {
+        return block >= 3 ? MAX_BLOCK : FIRST_BLOCK << block;
+    }
+
+    long fileSize(long count) {
+        return HEADER_SIZE + count * recordSize;
+    }
+}
@@ -0,0 +1,266 @@
+package tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 只读打开 DatasetWriter 写出的数据集：整个文件按段映射，Cursor 直接在映射区上按字段读，不把记录复制到堆上
+// 几亿条记录的文件也只占地址空间，实际读到的页由操作系统按需换入换出
+// 映射区是只读的，多个线程可以各拿一个 Cursor 分段并行读
+public class DatasetReader implements Closeable {
+
+    private static final ShapeType[] SHAPES = ShapeType.values();
+
+    private final FileChannel channel;
+    private final DatasetFormat format;
+    private final long count;
+    private final MappedByteBuffer[] segments;
+
+    public DatasetReader(Path file) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate(DatasetFormat.HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < DatasetFormat.HEADER_SIZE || header.getInt() != DatasetFormat.MAGIC) {
+                throw new IllegalArgumentException("not a dataset file: " + file);
+            }
+            byte version = header.get();
+            if (version != DatasetFormat.VERSION) {
+                throw new IllegalArgumentException("unsupported dataset version " + version + ": " + file);
+            }
+            format = new DatasetFormat(header.get(), header.get(), header.get());
+            int recordSize = header.getInt();
+            if (recordSize != format.recordSize) {
+                throw new IllegalArgumentException("record size mismatch " + recordSize + ": " + file);
+            }
+            count = header.getLong(DatasetFormat.COUNT_OFFSET);
+            if (channel.size() < format.fileSize(count)) {
+                throw new IllegalArgumentException("truncated dataset (writer not closed?): " + file);
+            }
+
+            int segmentCount = count == 0 ? 0 : format.segmentOf(count - 1) + 1;
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = format.segmentPosition(i);
+                long size = Math.min((long) format.recordsPerSegment * format.recordSize,
+                        format.fileSize(count) - position);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 记录槽位数，包括空槽位
+    public long size() {
+        return count;
+    }
+
+    public int getRows() {
+        return format.rows;
+    }
+
+    public int getCols() {
+        return format.cols;
+    }
+
+    public Cursor cursor() {
+        return cursor(0, count);
+    }
+
+    // 只遍历槽位 [from, to)，用来把一个文件分给多个线程
+    public Cursor cursor(long from, long to) {
+        if (from < 0 || to > count || from > to) {
+            throw new IllegalArgumentException("range [" + from + ", " + to + ") outside [0, " + count + ")");
+        }
+        return new Cursor(from, to);
+    }
+
+    // 映射区要等被回收才释放，关闭后不要再用 Cursor
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 在记录上移动的游标：每个 getter 都直接读映射区，游标本身可以一直复用
+    public final class Cursor {
+        private final long end;
+        private long index;
+        private ByteBuffer segment;
+        private int base;
+
+        private Cursor(long from, long to) {
+            this.index = from - 1;
+            this.end = to;
+        }
+
+        // 移到下一条有效记录，没有了返回 false
+        public boolean next() {
+            while (++index < end) {
+                segment = segments[format.segmentOf(index)];
+                base = format.offsetInSegment(index);
+                if ((flags() & DatasetFormat.FLAG_USED) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // 当前记录在文件里的槽位下标
+        public long getIndex() {
+            return index;
+        }
+
+        public long getSeed() {
+            return segment.getLong(base + format.seedOffset);
+        }
+
+        // 这一局里的第几个方块（从 0 开始）
+        public int getPieceIndex() {
+            return segment.getInt(base + format.pieceIndexOffset);
+        }
+
+        public ShapeType getType() {
+            return SHAPES[segment.get(base + format.typeOffset)];
+        }
+
+        public int getRotation() {
+            return segment.get(base + format.rotationOffset);
+        }
+
+        public int getX() {
+            return segment.get(base + format.xOffset);
+        }
+
+        public int getY() {
+            return segment.get(base + format.yOffset);
+        }
+
+        // 决策时暂存槽里的方块，空时返回 null
+        public ShapeType getHoldPiece() {
+            byte hold = segment.get(base + format.holdPieceOffset);
+            return hold == DatasetFormat.NO_PIECE ? null : SHAPES[hold];
+        }
+
+        // 这个方块是不是暂存换出来的
+        public boolean isHold() {
+            return (flags() & DatasetFormat.FLAG_HOLD) != 0;
+        }
+
+        // 落点之后的局面特征
+        public int getFeature(Feature feature) {
+            return segment.getShort(base + format.featuresOffset + feature.ordinal() * Short.BYTES);
+        }
+
+        // 决策时（锁定前）第 row 行的掩码
+        public int getRowMask(int row) {
+            int bit = row * format.cols;
+            int offset = base + (bit >>> 6) * Long.BYTES;
+            int shift = bit & (Long.SIZE - 1);
+            long value = segment.getLong(offset) >>> shift;
+            if (shift + format.cols > Long.SIZE) {
+                value |= segment.getLong(offset + Long.BYTES) << (Long.SIZE - shift);
+            }
+            return (int) value & ((1 << format.cols) - 1);
+        }
+
+        public boolean isOccupied(int row, int col) {
+            return (getRowMask(row) & (1 << col)) != 0;
+        }
+
+        // 把决策时的局面装进 grid（尺寸必须一致），用来重新搜索或重新评估
+        public void loadInto(TetrisGrid grid, int[] scratch) {
+            for (int row = 0; row < format.rows; row++) {
+                scratch[row] = getRowMask(row);
+            }
+            grid.setRowMasks(scratch);
+        }
+
+        // 这一局的结果是否已经回填（写入端在对局中途被打断时可能没有）
+        public boolean isFinished() {
+            return (flags() & DatasetFormat.FLAG_FINISHED) != 0;
+        }
+
+        // 这一局是顶死结束的，而不是跑满方块数被截断的
+        public boolean isToppedOut() {
+            return (flags() & DatasetFormat.FLAG_TOPPED_OUT) != 0;
+        }
+
+        public int getFinalPieces() {
+            return segment.getInt(base + format.finalPiecesOffset);
+        }
+
+        public int getFinalLines() {
+            return segment.getInt(base + format.finalLinesOffset);
+        }
+
+        public int getFinalScore() {
+            return segment.getInt(base + format.finalScoreOffset);
+        }
+
+        // 这个方块之后这一局还活了多少个方块
+        public int getPiecesRemaining() {
+            return getFinalPieces() - getPieceIndex() - 1;
+        }
+
+        private int flags() {
+            return segment.get(base + format.flagsOffset);
+        }
+    }
+
+    // 用法: DatasetReader <文件>
+    // 打印记录数、对局数、各特征均值，以及顶死前最后 10 个方块的特征均值（找坏决策的起点）
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("usage: DatasetReader <dataset>");
+            return;
+        }
+        Feature[] features = Feature.values();
+        try (DatasetReader reader = new DatasetReader(Path.of(args[0]))) {
+            long records = 0;
+            long games = 0;
+            long toppedOut = 0;
+            long nearDeath = 0;
+            double[] sums = new double[features.length];
+            double[] nearDeathSums = new double[features.length];
+            long start = System.nanoTime();
+            Cursor cursor = reader.cursor();
+            while (cursor.next()) {
+                records++;
+                if (cursor.getPieceIndex() == 0) {
+                    games++;
+                    if (cursor.isToppedOut()) toppedOut++;
+                }
+                boolean dying = cursor.isToppedOut() && cursor.getPiecesRemaining() < 10;
+                if (dying) nearDeath++;
+                for (Feature feature : features) {
+                    int value = cursor.getFeature(feature);
+                    sums[feature.ordinal()] += value;
+                    if (dying) nearDeathSums[feature.ordinal()] += value;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("records=%d games=%d toppedOut=%d slots=%d scan=%.2fs (%.0f records/s)%n",
+                    records, games, toppedOut, reader.size(), seconds, records / seconds);
+            for (Feature feature : features) {
+                int i = feature.ordinal();
+                System.out.printf("  %-18s mean=%.2f last10=%.2f%n", feature.getKey(),
+                        records == 0 ? 0 : sums[i] / records, nearDeath == 0 ? 0 : nearDeathSums[i] / nearDeath);
+            }
+        }
+    }
+}
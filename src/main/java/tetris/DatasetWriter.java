@@ -0,0 +1,207 @@
+package tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 把无界面对局里每个方块的决策写进内存映射的定长记录文件，格式见 DatasetFormat
+// 一个文件由多局并行共享：每局通过 beginGame 拿到自己的 Game，按块预留槽位（一次原子加法预留一整块），
+// 之后直接写进映射区，不经过堆上的缓冲；对局结束时 Game.finish 把最终结果回填到这一局的所有记录
+// 不同的 Game 只写互不重叠的槽位，映射缓冲区只用绝对位置读写，可以在多个线程里共用
+public class DatasetWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final DatasetFormat format;
+    private final AtomicLong nextRecord = new AtomicLong();
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    public DatasetWriter(Path file, int rows, int cols) {
+        this.format = new DatasetFormat(rows, cols);
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeHeader(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 开始记录一局，返回的 Game 只在跑这一局的线程里使用
+    public Game beginGame(long seed) {
+        return new Game(seed);
+    }
+
+    // 已经预留出去的槽位数（包括还没写完的）
+    public long getRecordCount() {
+        return nextRecord.get();
+    }
+
+    // 所有对局都 finish 之后调用：写入记录数并把文件截到实际长度
+    // 先把映射区刷到磁盘再截断（截掉的部分不能再去刷），最后连同头部和文件长度一起 force，
+    // close 返回之后即使进程崩溃，记录（包括最后写的完成标记）也都在文件里
+    // 映射区在被回收之前仍然占着地址空间
+    @Override
+    public void close() {
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            long count = nextRecord.get();
+            writeHeader(count);
+            channel.truncate(format.fileSize(count));
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeHeader(long count) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(DatasetFormat.HEADER_SIZE);
+        header.putInt(DatasetFormat.MAGIC);
+        header.put(DatasetFormat.VERSION);
+        header.put((byte) format.rows);
+        header.put((byte) format.cols);
+        header.put((byte) format.features);
+        header.putInt(format.recordSize);
+        header.putLong(DatasetFormat.COUNT_OFFSET, count);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    // 第 index 段的映射，第一次用到时才映射（同时把文件扩展到这一段的末尾）
+    private MappedByteBuffer segment(int index) {
+        MappedByteBuffer[] current = segments;
+        if (index < current.length) {
+            return current[index];
+        }
+        synchronized (this) {
+            current = segments;
+            if (index < current.length) {
+                return current[index];
+            }
+            MappedByteBuffer[] grown = new MappedByteBuffer[index + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            try {
+                for (int i = current.length; i <= index; i++) {
+                    grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, format.segmentPosition(i),
+                            (long) format.recordsPerSegment * format.recordSize);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segments = grown;
+            return grown[index];
+        }
+    }
+
+    // 一局的记录：注册成引擎的 LockListener，每个方块锁定前写一条
+    public final class Game implements LockListener {
+        private final long seed;
+        private final BoardFeatures features = new BoardFeatures();
+        private TetrisGrid scratch;
+        // 这一局预留的块（起始槽位下标，第 b 块的大小是 DatasetFormat.blockSize(b)），以及最后一块已经用了多少
+        private long[] blocks = new long[16];
+        private int blockCount;
+        private int used;
+        private int pieceIndex;
+
+        private Game(long seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        public void onLock(GameEngine engine) {
+            if (blockCount == 0 || used == DatasetFormat.blockSize(blockCount - 1)) {
+                reserveBlock();
+            }
+            long index = blocks[blockCount - 1] + used++;
+            ByteBuffer segment = segment(format.segmentOf(index));
+            int base = format.offsetInSegment(index);
+
+            TetrisGrid grid = engine.getGrid();
+            Tetromino piece = engine.getCurrentTetromino();
+            writeBoard(segment, base, grid);
+            segment.putLong(base + format.seedOffset, seed);
+            segment.putInt(base + format.pieceIndexOffset, pieceIndex++);
+            segment.put(base + format.typeOffset, (byte) piece.getType().ordinal());
+            segment.put(base + format.rotationOffset, (byte) piece.getRotation());
+            segment.put(base + format.xOffset, (byte) piece.getX());
+            segment.put(base + format.yOffset, (byte) piece.getY());
+            ShapeType hold = engine.getHoldPiece();
+            segment.put(base + format.holdPieceOffset, hold == null ? DatasetFormat.NO_PIECE : (byte) hold.ordinal());
+
+            // 落点之后的特征：在副本上锁定并消行，引擎的网格此时还没变
+            if (scratch == null) {
+                scratch = new TetrisGrid(grid.getRows(), grid.getCols());
+            }
+            scratch.copyFrom(grid);
+            scratch.lock(piece.getRowMasks(), piece.getX(), piece.getY());
+            features.compute(scratch, scratch.clearRows());
+            for (int i = 0; i < format.features; i++) {
+                segment.putShort(base + format.featuresOffset + i * Short.BYTES, (short) features.get(i));
+            }
+            // 标志最后写，读的时候看到 FLAG_USED 就说明前面的字段都写完了
+            segment.put(base + format.flagsOffset,
+                    (byte) (DatasetFormat.FLAG_USED | (engine.canHold() ? 0 : DatasetFormat.FLAG_HOLD)));
+        }
+
+        // 对局结束后调用一次：回填最终结果
+        public void finish(GameEngine engine) {
+            int flags = DatasetFormat.FLAG_FINISHED | (engine.isGameOver() ? DatasetFormat.FLAG_TOPPED_OUT : 0);
+            for (int b = 0; b < blockCount; b++) {
+                long start = blocks[b];
+                int count = b == blockCount - 1 ? used : DatasetFormat.blockSize(b);
+                for (int i = 0; i < count; i++) {
+                    ByteBuffer segment = segment(format.segmentOf(start + i));
+                    int base = format.offsetInSegment(start + i);
+                    segment.putInt(base + format.finalPiecesOffset, engine.getPiecesPlaced());
+                    segment.putInt(base + format.finalLinesOffset, engine.getLinesCleared());
+                    segment.putInt(base + format.finalScoreOffset, engine.getScore());
+                    segment.put(base + format.flagsOffset, (byte) (segment.get(base + format.flagsOffset) | flags));
+                }
+            }
+        }
+
+        private void reserveBlock() {
+            if (blockCount == blocks.length) {
+                long[] bigger = new long[blocks.length * 2];
+                System.arraycopy(blocks, 0, bigger, 0, blockCount);
+                blocks = bigger;
+            }
+            blocks[blockCount] = nextRecord.getAndAdd(DatasetFormat.blockSize(blockCount));
+            blockCount++;
+            used = 0;
+        }
+
+        // 行掩码按行连续打包，一行可能跨两个 long
+        private void writeBoard(ByteBuffer segment, int base, TetrisGrid grid) {
+            int cols = format.cols;
+            long word = 0;
+            int bit = 0;
+            int offset = base;
+            for (int row = 0; row < format.rows; row++) {
+                long mask = grid.getRowMask(row);
+                word |= mask << bit;
+                bit += cols;
+                if (bit >= Long.SIZE) {
+                    segment.putLong(offset, word);
+                    offset += Long.BYTES;
+                    bit -= Long.SIZE;
+                    word = bit == 0 ? 0 : mask >>> (cols - bit);
+                }
+            }
+            if (bit > 0) {
+                segment.putLong(offset, word);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package tetris;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// 每次 AI 决策一个 JFR 事件（持续时间就是决策耗时），用 JMC 或 jfr print --events tetris.Decision 查看
+// 只在 Metrics.ENABLED 时创建；JFR 没在录制时 commit 基本不花时间
+@Name("tetris.Decision")
+@Label("AI Decision")
+@Category({"Tetris", "AI"})
+@Description("One lookahead search decision")
+@StackTrace(false)
+class DecisionEvent extends Event {
+
+    @Label("Piece")
+    String piece;
+
+    @Label("Depth Reached")
+    int depth;
+
+    @Label("Max Depth")
+    int maxDepth;
+
+    @Label("Hold")
+    boolean hold;
+
+    @Label("Found Move")
+    boolean found;
+
+    @Label("Search Nodes")
+    long nodes;
+
+    @Label("Candidates Evaluated")
+    long candidates;
+}
@@ -0,0 +1,8 @@
+package tetris;
+
+// 局面评估：对一次放置（已锁定并消行）之后的局面打分，分数越高越好
+// 实现可以持有可复用的缓存，每个实例只在一个线程里使用
+public interface Evaluator {
+
+    double evaluate(TetrisGrid grid, int completedLines);
+}
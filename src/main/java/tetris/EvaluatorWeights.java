@@ -0,0 +1,94 @@
+package tetris;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+// 线性评估的权重，按 Feature 的 ordinal 存放
+// 配置文件是 properties 格式: <feature key>=<weight>，没写的特征权重为 0
+public class EvaluatorWeights {
+
+    // 默认权重随程序打包；运行时可以用 -Dtetris.weights=<文件> 换成调好的权重
+    public static final String DEFAULT_RESOURCE = "/ai-weights.properties";
+    public static final String WEIGHTS_PROPERTY = "tetris.weights";
+
+    private final double[] weights;
+
+    public EvaluatorWeights(double[] weights) {
+        if (weights.length != Feature.values().length) {
+            throw new IllegalArgumentException("expected " + Feature.values().length + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    // 先看 -Dtetris.weights，没有的话用打包的默认权重
+    public static EvaluatorWeights loadDefault() {
+        String path = System.getProperty(WEIGHTS_PROPERTY);
+        if (path != null) {
+            return load(Path.of(path));
+        }
+        try (InputStream in = EvaluatorWeights.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(DEFAULT_RESOURCE + " not found on classpath");
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return fromProperties(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static EvaluatorWeights load(Path file) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return fromProperties(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void save(Path file, String comment) {
+        Properties properties = new Properties();
+        for (Feature feature : Feature.values()) {
+            properties.setProperty(feature.getKey(), Double.toString(weights[feature.ordinal()]));
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, comment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static EvaluatorWeights fromProperties(Properties properties) {
+        double[] weights = new double[Feature.values().length];
+        for (Feature feature : Feature.values()) {
+            String value = properties.getProperty(feature.getKey());
+            if (value != null) {
+                weights[feature.ordinal()] = Double.parseDouble(value.trim());
+            }
+        }
+        return new EvaluatorWeights(weights);
+    }
+
+    public double get(Feature feature) {
+        return weights[feature.ordinal()];
+    }
+
+    public double[] toArray() {
+        return weights.clone();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(weights);
+    }
+}
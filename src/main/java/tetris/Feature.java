@@ -0,0 +1,22 @@
+package tetris;
+
+// 局面评估用到的特征，key 是权重配置文件里的名字
+public enum Feature {
+    AGGREGATE_HEIGHT("aggregateHeight"),
+    HOLES("holes"),
+    BUMPINESS("bumpiness"),
+    COMPLETED_LINES("completedLines"),
+    WELLS("wells"),
+    ROW_TRANSITIONS("rowTransitions"),
+    COLUMN_TRANSITIONS("columnTransitions");
+
+    private final String key;
+
+    Feature(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
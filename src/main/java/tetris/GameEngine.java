@@ -0,0 +1,674 @@
+package tetris;
+
+// 纯 Java 的游戏引擎：网格、出块、计分、移动/下落规则
+// 不依赖 JavaFX，也不依赖任何计时器，调用方决定推进的速度（UI 按模拟时钟调用 tick，批量模拟按 CPU 极限）
+// 两套规则：tick 按调用方给的时间处理重力、锁定延迟和输入；step/softDrop/hardDrop/place 是立即生效的，
+// 落不下去就马上锁定，批量模拟和 AI 用
+public class GameEngine {
+
+    public static final int DEFAULT_ROWS = 20;
+    public static final int DEFAULT_COLS = 10;
+    public static final int DEFAULT_PREVIEW = 5;
+    // 等级：每消 LINES_PER_LEVEL 行升一级，重力按标准曲线加快，到 MAX_LEVEL 是 20G（每 1/60 秒下落 20 行）
+    public static final int LINES_PER_LEVEL = 10;
+    public static final int MAX_LEVEL = 20;
+    public static final long MIN_DROP_INTERVAL_NANOS = 1_000_000_000L / (60 * 20);
+    // 落地后等多久锁定；落地期间移动/旋转会重新计时，但每个方块（每下到新的一行重新算）最多重置这么多次
+    public static final long DEFAULT_LOCK_DELAY_NANOS = 500_000_000L;
+    public static final int DEFAULT_MAX_LOCK_RESETS = 15;
+    private static final long NOT_GROUNDED = Long.MIN_VALUE;
+    private static final long[] LEVEL_DROP_NANOS = levelDropIntervals();
+    // 按住左右：先等 DAS 再每隔 ARR 移一格；按住软降每隔 ARR 下落一格
+    public static final long DEFAULT_DAS_NANOS = 167_000_000L;
+    public static final long DEFAULT_ARR_NANOS = 33_000_000L;
+    // AI 指令的方块编号只保留低 23 位，编码后仍是非负的 int
+    private static final int AI_PIECE_MASK = (1 << 23) - 1;
+    // 新方块出场时的位置，AI 计划都从这里开始
+    private static final int SPAWN_POSITION = positionKey(0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y);
+
+    private final TetrisGrid grid;
+    private final PieceGenerator pieces;
+    private Tetromino currentTetromino;
+
+    // 预览队列（环形数组，previewHead 指向下一个出场的方块）和暂存槽
+    private final ShapeType[] preview;
+    private int previewHead = 0;
+    private ShapeType holdPiece;          // null 表示暂存槽为空
+    private boolean canHold = true;       // 每个方块锁定前只能暂存一次
+
+    private int score = 0;
+    private final GameStats stats = new GameStats();
+    private int linesCleared = 0;
+    private int piecesPlaced = 0;
+    private int nextPieceId = 0;
+    private boolean isGameOver = false;
+    // 规则参数在构造时确定，第一个方块出场前就生效
+    private final GameRules rules;
+    // 当前的下落速度：每隔多久自动下落一格，默认跟着等级走；AI 线程会读它来算思考时间
+    private int level;
+    private boolean fixedDropInterval;
+    private volatile long dropIntervalNanos;
+    private SpawnListener spawnListener;
+    private LockListener lockListener;
+    // 当前方块出场以来成功执行的输入（Input 常量），回放记录用；重力下落不算输入
+    private byte[] pieceInputs = new byte[32];
+    private int pieceInputCount;
+    // 最近一次发布的不可变局面，其他线程（AI、渲染）无锁读取
+    private volatile BoardSnapshot snapshot;
+    private boolean publishSnapshots = true;
+
+    // 输入队列：玩家（JavaFX 线程）和 AI 线程各自一个生产者，引擎在 tick 里统一消费
+    private final InputQueue humanInputs = new InputQueue(64);
+    private final InputQueue aiInputs = new InputQueue(1024);
+    private long dasNanos = DEFAULT_DAS_NANOS;
+    private long arrNanos = DEFAULT_ARR_NANOS;
+    // 按住的键：shiftInput 是正在自动重复的方向（后按下的优先），0 表示没有
+    private boolean leftHeld;
+    private boolean rightHeld;
+    private byte shiftInput;
+    private long nextShiftNanos;
+    private boolean softDropHeld;
+    private long nextSoftDropNanos;
+    // 正在执行的 AI 计划：aiPlanTag 是计划的编号（出场时的方块），aiPlanPiece 是计划当前操作的方块，
+    // 暂存后换成新方块；计划作废后是 -1
+    // aiPlanPosition 是执行下一条指令前方块应该在的位置（positionKey）：计划是从出场位置算出来的，
+    // 方块被重力或玩家挪动过的话，剩下的输入会把它带到别的地方
+    private int aiPlanTag = -1;
+    private int aiPlanPiece = -1;
+    private int aiPlanPosition;
+    // tick 的重力和锁定延迟：都是调用方的时间。新方块出场后的第一次 tick 才开始计时
+    private final long lockDelayNanos;
+    private final int maxLockResets;
+    private boolean pieceClockPending = true;
+    private long nextGravityNanos;
+    private long lockStartNanos = NOT_GROUNDED;
+    private int lockResets;
+    private int lowestY;
+    private int manipulations;      // 上次 tick 以来成功的移动/旋转次数
+
+    public GameEngine(long seed) {
+        this(DEFAULT_ROWS, DEFAULT_COLS, seed);
+    }
+
+    public GameEngine(int rows, int cols, long seed) {
+        this(rows, cols, seed, DEFAULT_PREVIEW);
+    }
+
+    // 默认用 7-bag 出块
+    public GameEngine(int rows, int cols, long seed, int previewLength) {
+        this(rows, cols, new BagPieceGenerator(seed), previewLength);
+    }
+
+    public GameEngine(int rows, int cols, PieceGenerator pieces, int previewLength) {
+        this(rows, cols, pieces, previewLength, GameRules.DEFAULT);
+    }
+
+    // 出块器归这一局独占，不能和别的引擎共享
+    public GameEngine(int rows, int cols, PieceGenerator pieces, int previewLength, GameRules rules) {
+        this.grid = new TetrisGrid(rows, cols);
+        this.pieces = pieces;
+        this.rules = rules;
+        this.lockDelayNanos = rules.getLockDelayNanos();
+        this.maxLockResets = rules.getMaxLockResets();
+        updateLevel();
+        this.preview = new ShapeType[previewLength];
+        pieces.next(preview, 0, previewLength);
+        this.snapshot = grid.snapshot();
+        spawn(nextFromQueue());
+    }
+
+    // ======== 玩家/AI 操作，返回是否成功 ========
+    public boolean moveLeft() {
+        return recordInput(Input.LEFT, tryMove(currentTetromino.getX() - 1, currentTetromino.getY()));
+    }
+
+    public boolean moveRight() {
+        return recordInput(Input.RIGHT, tryMove(currentTetromino.getX() + 1, currentTetromino.getY()));
+    }
+
+    public boolean rotate() {
+        if (isGameOver) return false;
+        currentTetromino.rotate();
+        if (!grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY())) {
+            // 撤销旋转
+            currentTetromino.rotateBack();
+            return false;
+        }
+        return recordInput(Input.ROTATE_CW, true);
+    }
+
+    public boolean rotateCounterClockwise() {
+        if (isGameOver) return false;
+        currentTetromino.rotateBack();
+        if (!grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY())) {
+            currentTetromino.rotate();
+            return false;
+        }
+        return recordInput(Input.ROTATE_CCW, true);
+    }
+
+    // 暂存：当前方块放进暂存槽，换出暂存的方块（槽为空时从队列取下一个）
+    // 同一个方块锁定前只能暂存一次
+    public boolean hold() {
+        if (isGameOver || !canHold) return false;
+        ShapeType current = currentTetromino.getType();
+        ShapeType next = holdPiece != null ? holdPiece : nextFromQueue();
+        holdPiece = current;
+        canHold = false;
+        spawn(next);
+        return true;
+    }
+
+    // 软降一格：无法下落时锁定，与自动下落规则一致
+    public boolean softDrop() {
+        // 锁定的话已经换成新方块了，这一下不算新方块的输入
+        return recordInput(Input.SOFT_DROP, step());
+    }
+
+    // 直接落到底并锁定，返回下落的行数
+    public int hardDrop() {
+        if (isGameOver) return 0;
+        int distance = dropDistance();
+        currentTetromino.setPosition(currentTetromino.getX(), currentTetromino.getY() + distance);
+        if (distance > 0 && pieceInputCount > 0) {
+            // 旋转之后又落下来的不算 T-spin；瞬移过来的方块（没有输入）不记，回放文件不会因此变大
+            recordInput(Input.HARD_DROP, true);
+        }
+        lockAndSpawnNew();
+        return distance;
+    }
+
+    // 把当前方块切到指定朝向和列，然后直接落下（批量模拟/AI 用）
+    // 如果在当前行就放不下，返回 false 且不改变状态
+    public boolean place(int rotation, int x) {
+        if (isGameOver) return false;
+        if (!moveTo(rotation, x, currentTetromino.getY())) {
+            return false;
+        }
+        hardDrop();
+        return true;
+    }
+
+    // 把当前方块直接移到指定朝向和位置（不下落），目标位置非法时返回 false
+    public boolean moveTo(int rotation, int x, int y) {
+        if (isGameOver) return false;
+        Orientation orientation = RotationTable.get(currentTetromino.getType(), rotation);
+        if (!grid.isValidMove(orientation.getRowMasks(), orientation.getWidth(), x, y)) {
+            return false;
+        }
+        currentTetromino.setRotation(rotation);
+        currentTetromino.setPosition(x, y);
+        return true;
+    }
+
+    // ======== 重力推进一格：能下落则下落，否则锁定；返回是否仍在下落 ========
+    public boolean step() {
+        if (isGameOver) return false;
+
+        int newY = currentTetromino.getY() + 1;
+        if (grid.isValidMove(currentTetromino, currentTetromino.getX(), newY)) {
+            currentTetromino.moveDown();
+            return true;
+        }
+        lockAndSpawnNew();
+        return false;
+    }
+
+    // ======== 输入队列 ========
+    // 每帧调用一次：先执行玩家的指令，再执行 AI 的指令，最后处理按住不放的自动重复
+    // now 是单调时钟（System.nanoTime() 或 AnimationTimer 给的时间），返回这次有没有改变游戏状态
+    public boolean tick(long now) {
+        boolean changed = false;
+        int command;
+        while ((command = humanInputs.poll()) != InputQueue.EMPTY) {
+            changed |= applyHumanInput(command, now);
+        }
+        while ((command = aiInputs.poll()) != InputQueue.EMPTY) {
+            changed |= applyAiInput(command);
+        }
+        changed |= autoRepeat(now);
+        return gravity(now) | changed;
+    }
+
+    // 重力和锁定延迟。重力按 now 补齐欠下的行数，一次算出能落多远，20G 时也只是一次计算
+    private boolean gravity(long now) {
+        if (isGameOver) return false;
+        boolean changed = false;
+        if (pieceClockPending) {
+            pieceClockPending = false;
+            nextGravityNanos = now + dropIntervalNanos;
+        }
+        if (now - nextGravityNanos >= 0) {
+            long due = 1 + (now - nextGravityNanos) / dropIntervalNanos;
+            nextGravityNanos += due * dropIntervalNanos;
+            int distance = (int) Math.min(due, dropDistance());
+            if (distance > 0) {
+                currentTetromino.setPosition(currentTetromino.getX(), currentTetromino.getY() + distance);
+                changed = true;
+            }
+        }
+        if (currentTetromino.getY() > lowestY) {
+            // 下到了新的一行：重置次数和计时都重新开始
+            lowestY = currentTetromino.getY();
+            lockResets = 0;
+            lockStartNanos = NOT_GROUNDED;
+        }
+        if (manipulations > 0 && lockStartNanos != NOT_GROUNDED && lockResets < maxLockResets) {
+            lockResets = Math.min(maxLockResets, lockResets + manipulations);
+            lockStartNanos = now;
+        }
+        manipulations = 0;
+        if (grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY() + 1)) {
+            // 离开了地面（例如移出了平台边缘）；重置次数用完之后计时不再清零，落地后接着算
+            if (lockResets < maxLockResets) {
+                lockStartNanos = NOT_GROUNDED;
+            }
+            return changed;
+        }
+        if (lockStartNanos == NOT_GROUNDED) {
+            lockStartNanos = now;
+        }
+        if (now - lockStartNanos >= lockDelayNanos) {
+            lockAndSpawnNew();
+            changed = true;
+        }
+        return changed;
+    }
+
+    // tick 里执行一条指令：软降只往下移，落不下去时不锁定（交给锁定延迟）
+    private boolean applyInput(byte input) {
+        if (input == Input.SOFT_DROP) {
+            return recordInput(Input.SOFT_DROP, tryMove(currentTetromino.getX(), currentTetromino.getY() + 1));
+        }
+        return Input.apply(this, input);
+    }
+
+    private boolean applyHumanInput(int command, long now) {
+        byte input = (byte) (command & ~Input.RELEASE);
+        if ((command & Input.RELEASE) != 0) {
+            if (input == Input.LEFT || input == Input.RIGHT) {
+                if (input == Input.LEFT) leftHeld = false; else rightHeld = false;
+                if (shiftInput == input) {
+                    // 另一个方向还按着的话换成它，重新等 DAS
+                    shiftInput = leftHeld ? Input.LEFT : rightHeld ? Input.RIGHT : 0;
+                    nextShiftNanos = now + dasNanos;
+                }
+            } else if (input == Input.SOFT_DROP) {
+                softDropHeld = false;
+            }
+            return false;
+        }
+        if (input == Input.LEFT || input == Input.RIGHT) {
+            if (input == Input.LEFT) leftHeld = true; else rightHeld = true;
+            shiftInput = input;
+            nextShiftNanos = now + dasNanos;
+        } else if (input == Input.SOFT_DROP) {
+            softDropHeld = true;
+            nextSoftDropNanos = now + arrNanos;
+        }
+        if (isGameOver) return false;
+        return applyInput(input);
+    }
+
+    private boolean applyAiInput(int command) {
+        int tag = command >>> 8;
+        byte input = (byte) command;
+        if (tag != aiPlanTag) {
+            aiPlanTag = tag;
+            aiPlanPiece = tag;
+            aiPlanPosition = SPAWN_POSITION;
+        }
+        if (isGameOver || aiPlanPiece != (currentTetromino.getId() & AI_PIECE_MASK)) {
+            // 搜索期间方块已经锁定了，或者计划中途失败：剩下的指令作废
+            return false;
+        }
+        if (input != Input.HOLD && positionKey(currentTetromino) != aiPlanPosition) {
+            // 计划过时了（例如 AI 思考期间方块被重力拉下来了），照着走会落到别处：剩下的指令作废，方块交给重力
+            aiPlanPiece = -1;
+            return false;
+        }
+        if (!applyInput(input)) {
+            aiPlanPiece = -1;
+            return false;
+        }
+        // 暂存换出了新方块（在出场位置），计划接着操作它；硬降之后计划结束
+        aiPlanPiece = input == Input.HARD_DROP ? -1 : currentTetromino.getId() & AI_PIECE_MASK;
+        aiPlanPosition = positionKey(currentTetromino);
+        return true;
+    }
+
+    // 朝向、x、y 编成一个 int，比较方块位置用
+    private static int positionKey(int rotation, int x, int y) {
+        return rotation << 16 | (x & 0xFF) << 8 | (y & 0xFF);
+    }
+
+    private static int positionKey(Tetromino piece) {
+        return positionKey(piece.getRotation(), piece.getX(), piece.getY());
+    }
+
+    private boolean autoRepeat(long now) {
+        if (isGameOver) return false;
+        boolean changed = false;
+        if (shiftInput != 0) {
+            // 撞墙后停在原地，DAS 保持充满，挪开障碍后立即继续移动；ARR 为 0 时一次移到底
+            while (now - nextShiftNanos >= 0 && applyInput(shiftInput)) {
+                changed = true;
+                nextShiftNanos += arrNanos;
+            }
+        }
+        if (softDropHeld) {
+            while (now - nextSoftDropNanos >= 0) {
+                if (!applyInput(Input.SOFT_DROP)) {
+                    // 落地了：不把积压的次数带到下一个方块
+                    nextSoftDropNanos = now + arrNanos;
+                    break;
+                }
+                changed = true;
+                nextSoftDropNanos += arrNanos;
+            }
+        }
+        return changed;
+    }
+
+    // 把 AI 的一条指令和它针对的方块编成一个 int，放进 getAiInputs()
+    public static int aiCommand(int pieceId, byte input) {
+        return (pieceId & AI_PIECE_MASK) << 8 | input;
+    }
+
+    // 玩家指令：Input 常量，松开按键时加上 Input.RELEASE；只能由一个线程写入
+    public InputQueue getHumanInputs() {
+        return humanInputs;
+    }
+
+    // AI 指令：aiCommand(方块编号, Input 常量)；只能由一个线程写入
+    public InputQueue getAiInputs() {
+        return aiInputs;
+    }
+
+    public long getDasNanos() {
+        return dasNanos;
+    }
+
+    public void setDasNanos(long dasNanos) {
+        if (dasNanos < 0) {
+            throw new IllegalArgumentException("DAS must be non-negative, got " + dasNanos);
+        }
+        this.dasNanos = dasNanos;
+    }
+
+    public long getArrNanos() {
+        return arrNanos;
+    }
+
+    public void setArrNanos(long arrNanos) {
+        if (arrNanos < 0) {
+            throw new IllegalArgumentException("ARR must be non-negative, got " + arrNanos);
+        }
+        this.arrNanos = arrNanos;
+    }
+
+    // 当前方块还能下落多少行，不逐行模拟：方块每一列都在堆叠表面之上时，落点直接由列高算出；
+    // 只有钻到悬空的格子下面时才逐行检查
+    private int dropDistance() {
+        Orientation orientation = currentTetromino.getOrientation();
+        int x = currentTetromino.getX();
+        int y = currentTetromino.getY();
+        int rows = grid.getRows();
+        boolean aboveSurface = true;
+        for (int c = 0; c < orientation.getWidth() && aboveSurface; c++) {
+            aboveSurface = y + orientation.getBottom(c) < rows - grid.getColumnHeight(x + c);
+        }
+        if (aboveSurface) {
+            return PlacementGenerator.landingRow(grid, orientation, x) - y;
+        }
+        int distance = 0;
+        while (grid.isValidMove(orientation.getRowMasks(), orientation.getWidth(), x, y + distance + 1)) {
+            distance++;
+        }
+        return distance;
+    }
+
+    private boolean tryMove(int newX, int newY) {
+        if (isGameOver) return false;
+        if (grid.isValidMove(currentTetromino, newX, newY)) {
+            currentTetromino.setPosition(newX, newY);
+            return true;
+        }
+        return false;
+    }
+
+    // ======== 锁定当前方块并生成新方块 ========
+    private void lockAndSpawnNew() {
+        if (lockListener != null) {
+            lockListener.onLock(this);
+        }
+        // 判定框的四个角都在方块外面，锁定前后结果一样
+        int spin = Scoring.tSpin(grid, currentTetromino, lastInputWasRotation());
+        grid.lockTetromino(currentTetromino);
+        piecesPlaced++;
+        if (Metrics.ENABLED) {
+            Metrics.PIECES.increment();
+        }
+        clearLines(spin);
+        // 局面只在锁定/消行时改变，在这里发布新版本（只复制改动过的行）
+        if (publishSnapshots) {
+            snapshot = grid.snapshot();
+        }
+        canHold = true;
+        spawn(nextFromQueue());
+    }
+
+    private void spawn(ShapeType type) {
+        if (currentTetromino == null) {
+            currentTetromino = new Tetromino(type, nextPieceId++);
+        } else {
+            // 复用同一个对象，id 变了就是新方块
+            currentTetromino.respawn(type, nextPieceId++);
+        }
+        pieceInputCount = 0;
+        pieceClockPending = true;
+        lockStartNanos = NOT_GROUNDED;
+        lockResets = 0;
+        lowestY = currentTetromino.getY();
+        manipulations = 0;
+        // 检查是否游戏结束
+        checkGameOver();
+        if (spawnListener != null && !isGameOver) {
+            spawnListener.onSpawn(this);
+        }
+    }
+
+    // 取出队首方块并在队尾补一个新的；没有预览时直接从出块器取
+    private ShapeType nextFromQueue() {
+        if (preview.length == 0) {
+            return pieces.next();
+        }
+        ShapeType next = preview[previewHead];
+        preview[previewHead] = pieces.next();
+        previewHead = (previewHead + 1) % preview.length;
+        return next;
+    }
+
+    // ======== 检查是否游戏结束 ========
+    private void checkGameOver() {
+        if (!grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY())) {
+            isGameOver = true;
+        }
+    }
+
+    // ======== 消除行并更新分数 ========
+    // 按锁定前的等级计分，消完再升级
+    // 行不会悬空（只要有格子，最底行就不空），所以最底行为空就是全消
+    private void clearLines(int spin) {
+        int clearedLines = grid.clearFullLines();
+        boolean perfectClear = clearedLines > 0 && grid.getRowMask(grid.getRows() - 1) == 0;
+        score += stats.onLock(clearedLines, spin, perfectClear, level);
+        if (clearedLines > 0) {
+            linesCleared += clearedLines;
+            updateLevel();
+            if (Metrics.ENABLED) {
+                Metrics.LINES.add(clearedLines);
+            }
+        }
+    }
+
+    private boolean recordInput(byte input, boolean success) {
+        if (success) {
+            if (input != Input.SOFT_DROP) {
+                manipulations++;
+            }
+            if (pieceInputCount == pieceInputs.length) {
+                byte[] bigger = new byte[pieceInputs.length * 2];
+                System.arraycopy(pieceInputs, 0, bigger, 0, pieceInputCount);
+                pieceInputs = bigger;
+            }
+            pieceInputs[pieceInputCount++] = input;
+        }
+        return success;
+    }
+
+    // T-spin 要求最后一个动作是旋转；重力下落不算动作（回放和无界面模式里没有重力，这样两边的判定一致）
+    private boolean lastInputWasRotation() {
+        if (pieceInputCount == 0) return false;
+        byte last = pieceInputs[pieceInputCount - 1];
+        return last == Input.ROTATE_CW || last == Input.ROTATE_CCW;
+    }
+
+    // 瞬移到落点（无界面的 AI、回放）时补记路径的最后一步，T-spin 判定要用；只记旋转，其它的不影响判定
+    void recordFinalInput(byte input) {
+        if (input == Input.ROTATE_CW || input == Input.ROTATE_CCW) {
+            recordInput(input, true);
+        }
+    }
+
+    // 新方块出场时通知监听者（例如把局面交给 AI 线程）；传 null 取消
+    public void setSpawnListener(SpawnListener spawnListener) {
+        this.spawnListener = spawnListener;
+    }
+
+    // 方块锁定前通知监听者（例如回放记录）；传 null 取消
+    public void setLockListener(LockListener lockListener) {
+        this.lockListener = lockListener;
+    }
+
+    // 当前方块出场以来成功执行的输入个数，以及第 index 个输入
+    public int getPieceInputCount() {
+        return pieceInputCount;
+    }
+
+    public byte getPieceInput(int index) {
+        return pieceInputs[index];
+    }
+
+    public TetrisGrid getGrid() {
+        return grid;
+    }
+
+    // 当前局面的不可变快照，可以在任意线程读取
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // 无界面的批量模拟没有别的线程读局面，可以关掉发布省下每个方块的分配
+    // 关掉之后 getSnapshot() 停在关掉前的最后一个版本
+    public void setPublishSnapshots(boolean publishSnapshots) {
+        this.publishSnapshots = publishSnapshots;
+        if (publishSnapshots) {
+            snapshot = grid.snapshot();
+        }
+    }
+
+    public Tetromino getCurrentTetromino() {
+        return currentTetromino;
+    }
+
+    public int getPreviewLength() {
+        return preview.length;
+    }
+
+    // 第 index 个即将出场的方块（0 为下一个）
+    public ShapeType getPreview(int index) {
+        return preview[(previewHead + index) % preview.length];
+    }
+
+    // 暂存槽里的方块，空时返回 null
+    public ShapeType getHoldPiece() {
+        return holdPiece;
+    }
+
+    public boolean canHold() {
+        return canHold;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    // 本局的消除统计（T-spin、连击、背靠背、全消）
+    public GameStats getStats() {
+        return stats;
+    }
+
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    public long getDropIntervalNanos() {
+        return dropIntervalNanos;
+    }
+
+    // 固定下落速度，不再跟着等级变化
+    public void setDropIntervalNanos(long dropIntervalNanos) {
+        if (dropIntervalNanos <= 0) {
+            throw new IllegalArgumentException("drop interval must be positive, got " + dropIntervalNanos);
+        }
+        this.fixedDropInterval = true;
+        this.dropIntervalNanos = dropIntervalNanos;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public GameRules getRules() {
+        return rules;
+    }
+
+    public long getLockDelayNanos() {
+        return lockDelayNanos;
+    }
+
+    public int getMaxLockResets() {
+        return maxLockResets;
+    }
+
+    private void updateLevel() {
+        level = Math.min(MAX_LEVEL, rules.getStartLevel() + linesCleared / LINES_PER_LEVEL);
+        if (!fixedDropInterval) {
+            dropIntervalNanos = LEVEL_DROP_NANOS[level];
+        }
+    }
+
+    // 标准重力曲线：第 L 级每行 (0.8 - (L - 1) * 0.007)^(L - 1) 秒，1 级 1 秒一行，最快 20G
+    private static long[] levelDropIntervals() {
+        long[] intervals = new long[MAX_LEVEL + 1];
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            double seconds = Math.pow(0.8 - (level - 1) * 0.007, level - 1);
+            intervals[level] = Math.max(MIN_DROP_INTERVAL_NANOS, (long) (seconds * 1e9));
+        }
+        return intervals;
+    }
+
+    // 重力对应的 G 值：每 1/60 秒下落的行数
+    public static double gravityOf(long dropIntervalNanos) {
+        return 1e9 / 60 / dropIntervalNanos;
+    }
+
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+}
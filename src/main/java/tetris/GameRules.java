@@ -0,0 +1,47 @@
+package tetris;
+
+// 一局的规则参数：起始等级、锁定延迟、落地后锁定计时最多重置几次
+// 不可变，创建引擎时传进去，第一个方块出场之前就生效；回放文件头里记一份，回放时用同样的规则重建引擎
+public final class GameRules {
+
+    public static final GameRules DEFAULT = new GameRules(1, GameEngine.DEFAULT_LOCK_DELAY_NANOS,
+            GameEngine.DEFAULT_MAX_LOCK_RESETS);
+
+    private final int startLevel;
+    private final long lockDelayNanos;
+    private final int maxLockResets;
+
+    public GameRules(int startLevel, long lockDelayNanos, int maxLockResets) {
+        if (startLevel < 1 || startLevel > GameEngine.MAX_LEVEL) {
+            throw new IllegalArgumentException("start level must be in [1, " + GameEngine.MAX_LEVEL + "], got "
+                    + startLevel);
+        }
+        if (lockDelayNanos < 0) {
+            throw new IllegalArgumentException("lock delay must be non-negative, got " + lockDelayNanos);
+        }
+        if (maxLockResets < 0) {
+            throw new IllegalArgumentException("max lock resets must be non-negative, got " + maxLockResets);
+        }
+        this.startLevel = startLevel;
+        this.lockDelayNanos = lockDelayNanos;
+        this.maxLockResets = maxLockResets;
+    }
+
+    public int getStartLevel() {
+        return startLevel;
+    }
+
+    public long getLockDelayNanos() {
+        return lockDelayNanos;
+    }
+
+    public int getMaxLockResets() {
+        return maxLockResets;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("level=%d lockDelay=%dms lockResets=%d", startLevel, lockDelayNanos / 1_000_000,
+                maxLockResets);
+    }
+}
@@ -0,0 +1,135 @@
+package tetris;
+
+// 每局的计分状态（连击、背靠背）和累计统计：各种消除的次数、T-spin、全消、最长连击/背靠背
+// 一局只在一个线程里更新；批量模拟时每个任务累计自己的一份，最后用 merge 合并，不需要同步
+public final class GameStats {
+
+    private long pieces;
+    private final long[] clears = new long[5];          // 下标是消除的行数（不含 T-spin）
+    private final long[] tSpins = new long[4];          // 下标是 T-spin 消除的行数
+    private final long[] tSpinMinis = new long[3];
+    private long backToBacks;                           // 拿到背靠背加成的次数
+    private long perfectClears;
+    private long comboClears;                           // 拿到连击奖励的次数
+    private int maxCombo;
+    private int maxBackToBack;
+
+    // 本局的当前状态，合并时不参与
+    private int combo = -1;
+    private boolean backToBackReady;
+    private int backToBackChain;
+
+    // 记录一次锁定，返回得分：基础分（背靠背时乘 1.5）+ 连击 + 全消，都乘以 level
+    public int onLock(int lines, int spin, boolean perfectClear, int level) {
+        pieces++;
+        if (spin == Scoring.FULL) {
+            tSpins[Math.min(lines, tSpins.length - 1)]++;
+        } else if (spin == Scoring.MINI) {
+            tSpinMinis[Math.min(lines, tSpinMinis.length - 1)]++;
+        } else if (lines > 0) {
+            clears[Math.min(lines, clears.length - 1)]++;
+        }
+        if (lines == 0) {
+            // 不消行的 T-spin 不打断也不延续背靠背
+            combo = -1;
+            return Scoring.clearPoints(0, spin, false) * level;
+        }
+
+        boolean difficult = Scoring.isDifficult(lines, spin);
+        boolean backToBack = difficult && backToBackReady;
+        if (backToBack) {
+            backToBacks++;
+            backToBackChain++;
+            maxBackToBack = Math.max(maxBackToBack, backToBackChain);
+        } else {
+            backToBackChain = 0;
+        }
+        backToBackReady = difficult;
+
+        combo++;
+        if (combo > 0) {
+            comboClears++;
+            maxCombo = Math.max(maxCombo, combo);
+        }
+
+        int points = Scoring.clearPoints(lines, spin, backToBack) + Scoring.comboPoints(combo);
+        if (perfectClear) {
+            perfectClears++;
+            points += Scoring.perfectClearPoints(lines, backToBack);
+        }
+        return points * level;
+    }
+
+    // 把 other 的累计统计加进来（other 的连击/背靠背状态不带过来）
+    public GameStats merge(GameStats other) {
+        pieces += other.pieces;
+        for (int i = 0; i < clears.length; i++) {
+            clears[i] += other.clears[i];
+        }
+        for (int i = 0; i < tSpins.length; i++) {
+            tSpins[i] += other.tSpins[i];
+        }
+        for (int i = 0; i < tSpinMinis.length; i++) {
+            tSpinMinis[i] += other.tSpinMinis[i];
+        }
+        backToBacks += other.backToBacks;
+        perfectClears += other.perfectClears;
+        comboClears += other.comboClears;
+        maxCombo = Math.max(maxCombo, other.maxCombo);
+        maxBackToBack = Math.max(maxBackToBack, other.maxBackToBack);
+        return this;
+    }
+
+    public long getPieces() {
+        return pieces;
+    }
+
+    // 不带 T-spin 的 1 到 4 行消除次数
+    public long getClears(int lines) {
+        return clears[lines];
+    }
+
+    // 消除 0 到 3 行的 T-spin 次数
+    public long getTSpins(int lines) {
+        return tSpins[lines];
+    }
+
+    // 消除 0 到 2 行的 T-spin mini 次数
+    public long getTSpinMinis(int lines) {
+        return tSpinMinis[lines];
+    }
+
+    public long getBackToBacks() {
+        return backToBacks;
+    }
+
+    public long getPerfectClears() {
+        return perfectClears;
+    }
+
+    public long getComboClears() {
+        return comboClears;
+    }
+
+    public int getMaxCombo() {
+        return maxCombo;
+    }
+
+    public int getMaxBackToBack() {
+        return maxBackToBack;
+    }
+
+    // 当前的连击数，-1 表示上一个方块没有消行
+    public int getCombo() {
+        return combo;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("singles=%d doubles=%d triples=%d tetrises=%d tspins=%d/%d/%d/%d (0-3 lines) "
+                        + "minis=%d/%d/%d b2b=%d (max chain %d) combos=%d (max %d) perfectClears=%d",
+                clears[1], clears[2], clears[3], clears[4], tSpins[0], tSpins[1], tSpins[2], tSpins[3],
+                tSpinMinis[0], tSpinMinis[1], tSpinMinis[2], backToBacks, maxBackToBack, comboClears, maxCombo,
+                perfectClears);
+    }
+}
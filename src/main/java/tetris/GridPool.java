@@ -0,0 +1,42 @@
+package tetris;
+
+// 搜索用的网格池：按栈的方式借出/归还，避免每个搜索节点都 new 一块网格
+// 只在一个线程里使用
+public class GridPool {
+
+    private final int rows;
+    private final int cols;
+    private TetrisGrid[] free = new TetrisGrid[16];
+    private int size = 0;
+
+    public GridPool(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    // 借出一块网格，内容是上一次使用留下的，调用方需要先 copyFrom
+    public TetrisGrid acquire() {
+        if (size == 0) {
+            return new TetrisGrid(rows, cols);
+        }
+        TetrisGrid grid = free[--size];
+        free[size] = null;
+        return grid;
+    }
+
+    public void release(TetrisGrid grid) {
+        if (size == free.length) {
+            TetrisGrid[] bigger = new TetrisGrid[size * 2];
+            System.arraycopy(free, 0, bigger, 0, size);
+            free = bigger;
+        }
+        free[size++] = grid;
+    }
+
+    // 借出一块网格并复制 source 的内容
+    public TetrisGrid copyOf(TetrisGrid source) {
+        TetrisGrid grid = acquire();
+        grid.copyFrom(source);
+        return grid;
+    }
+}
@@ -0,0 +1,8 @@
+package tetris;
+
+// 无界面的玩家：为引擎当前的方块做出决定并执行，直到该方块锁定
+// 每个实例只在一个线程里使用，可以持有自己的缓存
+public interface HeadlessPlayer {
+
+    void playPiece(GameEngine engine);
+}
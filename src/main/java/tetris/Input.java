@@ -0,0 +1,43 @@
+package tetris;
+
+// 玩家/AI 的输入指令，用 byte 编码以便放进原始类型数组里
+public final class Input {
+
+    public static final byte LEFT = 1;
+    public static final byte RIGHT = 2;
+    public static final byte ROTATE_CW = 3;
+    public static final byte SOFT_DROP = 4;
+    public static final byte HOLD = 5;
+    public static final byte ROTATE_CCW = 6;
+    public static final byte HARD_DROP = 7;
+
+    // 玩家指令的按键松开标记：按住左右/软降会自动重复，松开时发一条 指令 | RELEASE
+    public static final int RELEASE = 0x80;
+
+    private Input() {
+    }
+
+    // 在引擎上执行一条输入，返回是否成功
+    public static boolean apply(GameEngine engine, byte input) {
+        switch (input) {
+            case LEFT:
+                return engine.moveLeft();
+            case RIGHT:
+                return engine.moveRight();
+            case ROTATE_CW:
+                return engine.rotate();
+            case SOFT_DROP:
+                return engine.softDrop();
+            case HOLD:
+                return engine.hold();
+            case ROTATE_CCW:
+                return engine.rotateCounterClockwise();
+            case HARD_DROP:
+                if (engine.isGameOver()) return false;
+                engine.hardDrop();
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown input " + input);
+        }
+    }
+}
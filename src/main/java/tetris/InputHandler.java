@@ -2,63 +2,67 @@ package tetris;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 
+// 把按键翻译成 Input 指令放进引擎的玩家输入队列，引擎在 tick 里执行，和 AI 走同一条路径
+// 按住不放的自动重复（DAS/ARR）由引擎按自己的时钟处理，这里过滤掉操作系统的按键重复
 public class InputHandler {
 
-    private boolean moveLeft;
-    private boolean moveRight;
-    private boolean rotate;
-    private boolean drop;
+    private final InputQueue queue;
+    private final boolean[] held = new boolean[8];   // 按 Input 常量索引
 
-    public InputHandler() {
-        reset();
+    public InputHandler(InputQueue queue) {
+        this.queue = queue;
     }
 
     public void handleKeyPressed(KeyEvent event) {
-        if (event.getCode() == KeyCode.LEFT) {
-            moveLeft = true;  // left
-        } else if (event.getCode() == KeyCode.RIGHT) {
-            moveRight = true; // right
-        } else if (event.getCode() == KeyCode.UP) {
-            rotate = true;    // rotate
-        } else if (event.getCode() == KeyCode.DOWN) {
-            drop = true;      // drop
+        byte input = toInput(event.getCode());
+        if (input == 0 || held[input]) {
+            return;
         }
+        held[input] = true;
+        queue.offer(input);
     }
 
     public void handleKeyReleased(KeyEvent event) {
-        if (event.getCode() == KeyCode.LEFT) {
-            moveLeft = false;
-        } else if (event.getCode() == KeyCode.RIGHT) {
-            moveRight = false;
-        } else if (event.getCode() == KeyCode.UP) {
-            rotate = false;
-        } else if (event.getCode() == KeyCode.DOWN) {
-            drop = false;
+        byte input = toInput(event.getCode());
+        if (input != 0) {
+            release(input);
         }
     }
 
-    public boolean isMoveLeft() {
-        return moveLeft;
-    }
-
-    public boolean isMoveRight() {
-        return moveRight;
-    }
-
-    public boolean isRotate() {
-        return rotate;
+    private void release(byte input) {
+        if (held[input]) {
+            held[input] = false;
+            queue.offer(input | Input.RELEASE);
+        }
     }
 
-    public boolean isDrop() {
-        return drop;
+    private static byte toInput(KeyCode code) {
+        switch (code) {
+            case LEFT:
+                return Input.LEFT;
+            case RIGHT:
+                return Input.RIGHT;
+            case UP:
+            case X:
+                return Input.ROTATE_CW;
+            case Z:
+                return Input.ROTATE_CCW;
+            case DOWN:
+                return Input.SOFT_DROP;
+            case SPACE:
+                return Input.HARD_DROP;
+            case C:
+                return Input.HOLD;
+            default:
+                return 0;
+        }
     }
 
-    // 重置按键状态
+    // 松开所有按着的键（例如暂停时），引擎停止自动重复
     public void reset() {
-        moveLeft = false;
-        moveRight = false;
-        rotate = false;
-        drop = false;
+        for (byte input = 1; input < held.length; input++) {
+            release(input);
+        }
     }
 
 }
@@ -0,0 +1,79 @@
+package tetris;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// 单生产者/单消费者的输入指令环形缓冲区，指令编码成 int，入队出队都不分配内存
+// 生产者（键盘事件所在的 JavaFX 线程，或者 AI 线程）只写 tail，消费者（引擎 tick）只写 head；
+// 元素先写进数组再用 lazySet 发布 tail，消费者读到新的 tail 时一定能看到对应的元素
+// 每个队列只能有一个生产者线程和一个消费者线程
+public final class InputQueue {
+
+    // 队列为空时 poll 的返回值，合法的指令都是非负数
+    public static final int EMPTY = -1;
+
+    private final int[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // 各自缓存一份对方的位置，只有看起来满了/空了才去读对方的原子变量
+    private long cachedHead;     // 生产者用
+    private long cachedTail;     // 消费者用
+
+    // capacity 向上取整到 2 的幂
+    public InputQueue(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30], got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new int[size];
+        this.mask = size - 1;
+    }
+
+    // 生产者调用：满了返回 false，指令被丢弃
+    public boolean offer(int command) {
+        if (command < 0) {
+            throw new IllegalArgumentException("command must be non-negative, got " + command);
+        }
+        long t = tail.get();
+        if (t - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) t & mask] = command;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // 消费者调用：取出一条指令，队列为空时返回 EMPTY
+    public int poll() {
+        long h = head.get();
+        if (h >= cachedTail) {
+            cachedTail = tail.get();
+            if (h >= cachedTail) {
+                return EMPTY;
+            }
+        }
+        int command = buffer[(int) h & mask];
+        head.lazySet(h + 1);
+        return command;
+    }
+
+    // 消费者调用：丢掉所有还没取出的指令（例如开新局）
+    public void clear() {
+        head.lazySet(tail.get());
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    // 近似值：两个线程都在动时只是一个快照
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+}
@@ -0,0 +1,123 @@
+package tetris;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// 延迟直方图（纳秒），HdrHistogram 的思路：对数分桶，每个 2 的幂区间再线性分成 SUB_BUCKETS 个小桶，
+// 相对误差不超过 1/SUB_BUCKETS（约 3%），覆盖 0 到 Long.MAX_VALUE，整个直方图是一块固定大小的计数数组
+// 多个线程同时记录时按线程分到不同的条带上，各条带互不争用缓存行，读的时候再合并
+// 条带在第一次记录时才分配，没用到的直方图（例如指标关闭时）几乎不占内存
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+    // 每个条带末尾额外的两格：总和与最大值
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    private final String name;
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        int index = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS + 2));
+            stripe = stripes.get(index);
+        }
+        stripe.getAndIncrement(bucketOf(nanos));
+        stripe.getAndAdd(SUM, nanos);
+        long max = stripe.get(MAX);
+        while (nanos > max && !stripe.compareAndSet(MAX, max, nanos)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    // 小于 2 * SUB_BUCKETS 的值各占一个桶；更大的值按最高位所在的 2 的幂分组，组内取最高 SUB_BITS + 1 位
+    static int bucketOf(long value) {
+        int shift = Math.max(0, Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    // 桶的下界
+    static long lowerBound(int bucket) {
+        int shift = Math.max(0, bucket / SUB_BUCKETS - 1);
+        return (long) (bucket - shift * SUB_BUCKETS) << shift;
+    }
+
+    // 所有条带合并后的计数；最后两格是总和与最大值
+    public long[] snapshot() {
+        long[] counts = new long[BUCKETS + 2];
+        for (int s = 0; s < STRIPES; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) continue;
+            for (int i = 0; i < SUM; i++) {
+                counts[i] += stripe.get(i);
+            }
+            counts[SUM] += stripe.get(SUM);
+            counts[MAX] = Math.max(counts[MAX], stripe.get(MAX));
+        }
+        return counts;
+    }
+
+    public void reset() {
+        for (int s = 0; s < STRIPES; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) continue;
+            for (int i = 0; i < stripe.length(); i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    // 一行摘要: count mean p50 p90 p99 p999 max，时间单位纳秒
+    public String summary() {
+        long[] counts = snapshot();
+        long count = 0;
+        for (int i = 0; i < SUM; i++) {
+            count += counts[i];
+        }
+        if (count == 0) {
+            return name + " count=0";
+        }
+        return String.format("%s count=%d mean=%.0f p50=%d p90=%d p99=%d p999=%d max=%d", name, count,
+                (double) counts[SUM] / count, percentile(counts, count, 0.50), percentile(counts, count, 0.90),
+                percentile(counts, count, 0.99), percentile(counts, count, 0.999), counts[MAX]);
+    }
+
+    // 非空的桶: "下界:计数"，离线合并或者画分布用
+    public String buckets() {
+        long[] counts = snapshot();
+        StringBuilder sb = new StringBuilder(name).append(" buckets");
+        for (int i = 0; i < SUM; i++) {
+            if (counts[i] > 0) {
+                sb.append(' ').append(lowerBound(i)).append(':').append(counts[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static long percentile(long[] counts, long count, double p) {
+        long rank = (long) Math.ceil(p * count);
+        long seen = 0;
+        for (int i = 0; i < SUM; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return lowerBound(i);
+            }
+        }
+        return counts[MAX];
+    }
+}
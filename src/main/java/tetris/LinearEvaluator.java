@@ -0,0 +1,26 @@
+package tetris;
+
+// 默认的评估：特征的加权和
+public class LinearEvaluator implements Evaluator {
+
+    private final double[] weights;
+    private final BoardFeatures features = new BoardFeatures();
+
+    public LinearEvaluator() {
+        this(EvaluatorWeights.loadDefault());
+    }
+
+    public LinearEvaluator(EvaluatorWeights weights) {
+        this.weights = weights.toArray();
+    }
+
+    @Override
+    public double evaluate(TetrisGrid grid, int completedLines) {
+        features.compute(grid, completedLines);
+        double score = 0;
+        for (int i = 0; i < weights.length; i++) {
+            score += weights[i] * features.get(i);
+        }
+        return score;
+    }
+}
@@ -0,0 +1,15 @@
+package tetris;
+
+// 方块锁定时的回调，在方块写进网格之前调用：此时当前方块已在最终位置，网格还是锁定前的样子
+// 和 SpawnListener 一样在引擎线程里调用，实现里不要做耗时的事
+public interface LockListener {
+    void onLock(GameEngine engine);
+
+    // 先通知自己再通知 next，用来同时挂回放和数据集记录
+    default LockListener andThen(LockListener next) {
+        return engine -> {
+            onLock(engine);
+            next.onLock(engine);
+        };
+    }
+}
@@ -0,0 +1,641 @@
+package tetris;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// 多方块前瞻搜索：当前方块 + 预览队列里已知的方块，并考虑在根节点使用暂存
+// 每一层先把所有落点锁定、消行、静态打分，只对分数最高的 beamWidth 个继续往下展开（beam 剪枝的 DFS）
+// 叶子的分数 = Evaluator 对最终局面的打分，completedLines 为整条路线上消除的总行数
+// 迭代加深：深度 1, 2, ... 依次完整搜索，每算完一层就记下这一层的最佳落点
+// 到截止时间还没算完的那一层整层作废，返回最深的完整一层的结果；深度 1 不受截止时间限制，所以总能给出答案
+// 不同的放置顺序经常得到同一个局面，内部节点的结果按 Zobrist 哈希缓存在置换表里
+public class LookaheadSearch implements HeadlessPlayer {
+
+    public static final int DEFAULT_DEPTH = 3;
+    public static final int DEFAULT_BEAM_WIDTH = 6;
+    public static final long DEFAULT_BUDGET_NANOS = 50_000_000L;
+
+    // 方块放不下（游戏结束）时的分数
+    private static final double DEAD = -1e9;
+
+    private final Evaluator evaluator;
+    private final int maxDepth;
+    private final int beamWidth;
+    private final long budgetNanos;
+    private final TranspositionTable table;    // null 表示不使用置换表
+
+    private final PlacementGenerator placementGenerator = new PlacementGenerator();
+    private MoveGenerator moveGenerator;
+    private GridPool pool;
+    private int[] lockStates;
+    private byte[] path;             // 不暂存时根节点的输入序列
+    private byte[] holdPath;         // 暂存时根节点的输入序列（以 Input.HOLD 开头）
+    private byte[] inputBuffer;      // 返回 Placement 的便捷入口用
+    private double rootValue;        // searchRoot 的最佳分数
+    private boolean rootDeepened;    // searchRoot 的候选是否被深入搜索过
+    private int[][] candidates;      // 每一层的落点
+    private double[][] scores;       // 每一层落点的静态分数
+    private int[][] cleared;         // 每一层落点消除的行数
+    private ShapeType[] sequence;    // 根节点之后要放的方块
+    private ShapeType[] previewBuffer = new ShapeType[0];
+    private int sequenceLength;
+    private long deadline;
+    private boolean timedOut;        // 本次搜索是否因为超时截断过（截断的结果不写入置换表）
+    private AtomicLong bound;        // 并行搜索共享的最好分数下界（double 的位），null 表示不剪枝
+    private double futilityMargin;   // 每剩一层，静态分数还可能提高多少
+    private boolean pruned;          // 当前子树是否剪过枝（剪过的结果只是下界，不写入置换表）
+    private double nodeValue;        // beam() 返回 0 时这个节点的值
+    // 展开的节点数和调用评估的次数：普通字段，只在当前线程里累加，一次决策结束才交给 Metrics
+    private long nodes;
+    private long evaluated;
+
+    // 每步实际完成的搜索深度：depthCounts[d] = 完整算完 d 层的步数
+    private final AtomicLongArray depthCounts;
+    private volatile int lastDepth;
+    private int rows;
+    private int cols;
+
+    public LookaheadSearch() {
+        this(new LinearEvaluator());
+    }
+
+    public LookaheadSearch(Evaluator evaluator) {
+        this(evaluator, DEFAULT_DEPTH, DEFAULT_BEAM_WIDTH, DEFAULT_BUDGET_NANOS);
+    }
+
+    public LookaheadSearch(Evaluator evaluator, int maxDepth, int beamWidth, long budgetNanos) {
+        this(evaluator, maxDepth, beamWidth, budgetNanos, new TranspositionTable());
+    }
+
+    public LookaheadSearch(Evaluator evaluator, int maxDepth, int beamWidth, long budgetNanos,
+                           TranspositionTable table) {
+        if (maxDepth < 1 || maxDepth > Zobrist.MAX_SEQUENCE + 1) {
+            throw new IllegalArgumentException("maxDepth must be in [1, " + (Zobrist.MAX_SEQUENCE + 1) + "], got " + maxDepth);
+        }
+        this.evaluator = evaluator;
+        this.maxDepth = maxDepth;
+        this.beamWidth = beamWidth;
+        this.budgetNanos = budgetNanos;
+        this.table = table;
+        this.depthCounts = new AtomicLongArray(maxDepth + 1);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    @Override
+    public void playPiece(GameEngine engine) {
+        ensureCapacity(engine.getGrid());
+        long move = findMove(engine, inputBuffer);
+        if (move != Move.NONE) {
+            if (Move.isHold(move)) {
+                engine.hold();
+            }
+            // 落点已确认可达，无界面模式下直接移过去，省去逐条执行输入
+            engine.moveTo(Move.rotationOf(move), Move.xOf(move), Move.yOf(move));
+            // 路径以旋转结束的落点可能是 T-spin，计分要知道
+            int length = Move.inputLength(move);
+            if (length > 0) {
+                engine.recordFinalInput(inputBuffer[length - 1]);
+            }
+        }
+        engine.hardDrop();
+    }
+
+    // 返回最佳落点，没有任何可放置的位置时返回 null（会分配 Placement，热路径用 findMove）
+    public Placement findBest(GameEngine engine) {
+        ensureCapacity(engine.getGrid());
+        return Move.toPlacement(findMove(engine, inputBuffer), inputBuffer);
+    }
+
+    // 不依赖引擎的入口：AI 线程可以用自己手里的局面副本搜索
+    // preview 的前 previewLength 个为预览队列，holdPiece 为 null 表示暂存槽为空
+    public Placement findBest(TetrisGrid grid, ShapeType type, int rotation, int x, int y,
+                              ShapeType[] preview, int previewLength, ShapeType holdPiece, boolean canHold) {
+        return findBest(grid, type, rotation, x, y, preview, previewLength, holdPiece, canHold,
+                System.nanoTime() + budgetNanos);
+    }
+
+    // 带绝对截止时间（System.nanoTime()）的入口，例如由下落速度推出来的截止时间
+    public Placement findBest(TetrisGrid grid, ShapeType type, int rotation, int x, int y,
+                              ShapeType[] preview, int previewLength, ShapeType holdPiece, boolean canHold,
+                              long deadline) {
+        ensureCapacity(grid);
+        long move = findMove(grid, type, rotation, x, y, preview, previewLength, holdPiece, canHold,
+                deadline, inputBuffer);
+        return Move.toPlacement(move, inputBuffer);
+    }
+
+    // 热路径：结果打包成 long（见 Move），没有可放置的位置时返回 Move.NONE
+    // 输入序列写进 inputs（长度至少为 Move.maxInputs(rows, cols)），整个决策不分配内存
+    public long findMove(GameEngine engine, byte[] inputs) {
+        Tetromino tetromino = engine.getCurrentTetromino();
+        int previewLength = engine.getPreviewLength();
+        if (previewBuffer.length < previewLength) {
+            previewBuffer = new ShapeType[previewLength];
+        }
+        for (int i = 0; i < previewLength; i++) {
+            previewBuffer[i] = engine.getPreview(i);
+        }
+        return findMove(engine.getGrid(), tetromino.getType(), tetromino.getRotation(), tetromino.getX(),
+                tetromino.getY(), previewBuffer, previewLength, engine.getHoldPiece(), engine.canHold(),
+                System.nanoTime() + budgetNanos, inputs);
+    }
+
+    public long findMove(TetrisGrid grid, ShapeType type, int rotation, int x, int y,
+                         ShapeType[] preview, int previewLength, ShapeType holdPiece, boolean canHold,
+                         long deadline, byte[] inputs) {
+        ensureCapacity(grid);
+        this.deadline = deadline;
+        DecisionEvent event = null;
+        long start = 0;
+        if (Metrics.ENABLED) {
+            start = System.nanoTime();
+            nodes = 0;
+            evaluated = 0;
+            event = new DecisionEvent();
+            event.begin();
+        }
+        // 预览队列最多能让搜索看多深，再深的迭代和上一层完全一样
+        int reachable = Math.min(maxDepth, previewLength + 1);
+
+        long best = Move.NONE;
+        int completed = 0;
+        for (int depth = 1; depth <= reachable; depth++) {
+            timedOut = false;
+            long move = searchToDepth(grid, type, rotation, x, y, preview, previewLength,
+                    holdPiece, canHold, depth);
+            if (timedOut && depth > 1) {
+                // 这一层没算完，保留上一层的结果
+                break;
+            }
+            best = move;
+            completed = depth;
+            if (best == Move.NONE) {
+                break;
+            }
+            // 只有算完的一层才把输入序列交给调用方
+            System.arraycopy(Move.isHold(best) ? holdPath : path, 0, inputs, 0, Move.inputLength(best));
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        lastDepth = completed;
+        depthCounts.incrementAndGet(completed);
+        if (Metrics.ENABLED) {
+            recordDecision(event, start, type, best, completed);
+        }
+        return best;
+    }
+
+    private void recordDecision(DecisionEvent event, long start, ShapeType type, long move, int depth) {
+        Metrics.DECISION.record(System.nanoTime() - start);
+        Metrics.NODES.add(nodes);
+        Metrics.CANDIDATES.add(evaluated);
+        event.end();
+        if (event.shouldCommit()) {
+            event.piece = type.name();
+            event.depth = depth;
+            event.maxDepth = maxDepth;
+            event.found = move != Move.NONE;
+            event.hold = move != Move.NONE && Move.isHold(move);
+            event.nodes = nodes;
+            event.candidates = evaluated;
+            event.commit();
+        }
+    }
+
+    // 上一步完整算完的深度
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    // 完整算完 depth 层的步数
+    public long getDepthCount(int depth) {
+        return depthCounts.get(depth);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    // 每步达到的深度分布，例如 "depth 1:3% 2:10% 3:87%"
+    public String depthReport() {
+        long[] counts = new long[maxDepth + 1];
+        for (int depth = 0; depth <= maxDepth; depth++) {
+            counts[depth] = depthCounts.get(depth);
+        }
+        return depthReport(counts);
+    }
+
+    // 把到目前为止的深度计数加进 totals（下标是深度，长度至少 maxDepth + 1）并清零
+    // 批量模拟时每个叶子任务结束调用一次，汇总多个线程的结果不需要保留搜索实例
+    public void drainDepthCounts(LongAdder[] totals) {
+        for (int depth = 0; depth <= maxDepth; depth++) {
+            long count = depthCounts.getAndSet(depth, 0);
+            if (count > 0) {
+                totals[depth].add(count);
+            }
+        }
+    }
+
+    // 汇总出来的深度分布，totals 由 drainDepthCounts 累计
+    public static String depthReport(LongAdder[] totals) {
+        long[] counts = new long[totals.length];
+        for (int depth = 0; depth < totals.length; depth++) {
+            counts[depth] = totals[depth].sum();
+        }
+        return depthReport(counts);
+    }
+
+    private static String depthReport(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        StringBuilder sb = new StringBuilder("depth");
+        for (int depth = 0; depth < counts.length; depth++) {
+            if (counts[depth] > 0) {
+                sb.append(String.format(" %d:%.1f%%", depth, 100.0 * counts[depth] / total));
+            }
+        }
+        return sb.append(" (").append(total).append(" moves)").toString();
+    }
+
+    // 搜索 depth 层：当前方块 + 预览队列里的 depth - 1 个方块
+    // 不暂存的输入序列写在 path，暂存的写在 holdPath
+    private long searchToDepth(TetrisGrid grid, ShapeType type, int rotation, int x, int y,
+                               ShapeType[] preview, int previewLength, ShapeType holdPiece, boolean canHold,
+                               int depth) {
+        // 1) 不暂存：放当前方块，后面依次是预览队列
+        loadSequence(preview, previewLength, 0, depth);
+        long best = searchRoot(grid, type, rotation, x, y, false, path);
+        double bestValue = rootValue;
+        boolean bestDeepened = rootDeepened;
+
+        // 2) 暂存：换出暂存槽的方块（槽为空则是队列里的下一个），从出生点开始
+        if (canHold && (holdPiece != null || previewLength > 0)) {
+            ShapeType rootPiece = holdPiece != null ? holdPiece : preview[0];
+            loadSequence(preview, previewLength, holdPiece != null ? 0 : 1, depth);
+            long holdBest = searchRoot(grid, rootPiece,
+                    0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y, true, holdPath);
+            // 只有两边的分数是同样深度算出来的才互相比较
+            if (holdBest != Move.NONE
+                    && (best == Move.NONE || (rootDeepened == bestDeepened && rootValue > bestValue))) {
+                best = holdBest;
+            }
+        }
+        return best;
+    }
+
+    private void loadSequence(ShapeType[] preview, int previewLength, int previewOffset, int depth) {
+        sequenceLength = 0;
+        for (int i = previewOffset; i < previewLength && sequenceLength < depth - 1; i++) {
+            sequence[sequenceLength++] = preview[i];
+        }
+    }
+
+    // 根节点：用 MoveGenerator 只考虑真正可达的落点，输入序列写进 out
+    // 最佳分数放在 rootValue，rootDeepened 表示根节点的候选是否被深入搜索过
+    private long searchRoot(TetrisGrid grid, ShapeType type, int rotation, int x, int y,
+                            boolean hold, byte[] out) {
+        int count = moveGenerator.generate(grid, type, rotation, x, y, lockStates);
+        rootValue = DEAD;
+        rootDeepened = false;
+        if (count == 0) {
+            return Move.NONE;
+        }
+
+        int[] rootCandidates = candidates[0];
+        double[] rootScores = scores[0];
+        int[] rootCleared = cleared[0];
+        for (int i = 0; i < count; i++) {
+            rootCandidates[i] = lockStates[i];
+            TetrisGrid child = lockChild(grid, type, moveGenerator.rotationOf(lockStates[i]),
+                    moveGenerator.xOf(lockStates[i]), moveGenerator.yOf(lockStates[i]));
+            rootCleared[i] = child.clearRows();
+            rootScores[i] = evaluator.evaluate(child, rootCleared[i]);
+            pool.release(child);
+        }
+        evaluated += count;
+
+        int width = count;
+        if (sequenceLength > 0) {
+            // 只深入静态分数最高的几个，按静态分数从高到低展开
+            int top = selectTop(rootCandidates, rootScores, rootCleared, count, beamWidth);
+            int deepened = deepenRoot(grid, type, top);
+            if (deepened < top) {
+                // 时间用完，这一层不完整
+                timedOut = true;
+            }
+            // 只在展开过的候选之间比较，避免把深层分数和静态分数混在一起；一个都没展开就退回静态分数
+            if (deepened > 0) {
+                width = deepened;
+                rootDeepened = true;
+            }
+        }
+
+        int best = 0;
+        for (int i = 1; i < width; i++) {
+            if (rootScores[i] > rootScores[best]) {
+                best = i;
+            }
+        }
+        rootValue = rootScores[best];
+
+        int state = rootCandidates[best];
+        int offset = 0;
+        if (hold) {
+            out[offset++] = Input.HOLD;
+        }
+        int length = offset + moveGenerator.pathTo(state, out, offset);
+        return Move.pack(moveGenerator.rotationOf(state), moveGenerator.xOf(state), moveGenerator.yOf(state),
+                hold, length);
+    }
+
+    // 按静态分数从高到低深入前 top 个根候选，把深层分数写回根节点的分数数组，返回深入了几个
+    // 时间用完就停下，后面的候选保持静态分数
+    int deepenRoot(TetrisGrid grid, ShapeType type, int top) {
+        int[] rootCandidates = candidates[0];
+        double[] rootScores = scores[0];
+        int[] rootCleared = cleared[0];
+        int deepened = 0;
+        for (int i = 0; i < top && !timedOut && System.nanoTime() < deadline; i++) {
+            int state = rootCandidates[i];
+            TetrisGrid child = lockChild(grid, type, moveGenerator.rotationOf(state),
+                    moveGenerator.xOf(state), moveGenerator.yOf(state));
+            child.clearRows();
+            rootScores[i] = expand(child, 1, rootCleared[i]);
+            pool.release(child);
+            deepened++;
+        }
+        return deepened;
+    }
+
+    // 在 grid 上放 sequence[depth - 1]，返回能达到的最好分数
+    double expand(TetrisGrid grid, int depth, int linesSoFar) {
+        nodes++;
+        // 节点的值只取决于 局面 + 剩下的方块序列 + 已消行数
+        long key = 0L;
+        int remaining = sequenceLength - depth + 1;
+        if (table != null) {
+            key = grid.getHash() ^ Zobrist.linesKey(linesSoFar);
+            for (int i = 0; i < remaining; i++) {
+                key ^= Zobrist.pieceKey(i, sequence[depth - 1 + i]);
+            }
+            int slot = table.probe(key, remaining);
+            if (slot >= 0) {
+                return table.getValue(slot);
+            }
+        }
+        boolean prunedAbove = pruned;
+        pruned = false;
+        double value = search(grid, depth, linesSoFar);
+        if (table != null && !timedOut && !pruned) {
+            table.store(key, remaining, value);
+        }
+        pruned |= prunedAbove;
+        return value;
+    }
+
+    private double search(TetrisGrid grid, int depth, int linesSoFar) {
+        int width = beam(grid, depth, linesSoFar);
+        if (width == 0) {
+            return nodeValue;
+        }
+        ShapeType type = sequence[depth - 1];
+        int[] levelCandidates = candidates[depth];
+        double[] levelScores = scores[depth];
+        int[] levelCleared = cleared[depth];
+        double best = DEAD;
+        for (int i = 0; i < width && !timedOut; i++) {
+            if (isFutile(levelScores[i], depth)) {
+                // 按静态分数从高到低排过序，后面的只会更差
+                pruned = true;
+                break;
+            }
+            int placement = levelCandidates[i];
+            TetrisGrid child = lockChild(grid, type, PlacementGenerator.rotationOf(placement),
+                    PlacementGenerator.xOf(placement), PlacementGenerator.yOf(placement));
+            child.clearRows();
+            double value = expand(child, depth + 1, levelCleared[i]);
+            pool.release(child);
+            if (value > best) best = value;
+        }
+        return best;
+    }
+
+    // 在 grid 上为 sequence[depth - 1] 生成落点、静态打分，并把要继续展开的 beam 挪到这一层缓冲区的前面
+    // 返回 beam 的宽度；返回 0 表示这个节点不再展开（放不下、最后一层或者时间用完），值在 nodeValue 里
+    int beam(TetrisGrid grid, int depth, int linesSoFar) {
+        ShapeType type = sequence[depth - 1];
+        int[] levelCandidates = candidates[depth];
+        double[] levelScores = scores[depth];
+        int[] levelCleared = cleared[depth];
+
+        // 内部节点用硬降落点，O(宽度) 生成，比可达性搜索便宜得多
+        int count = placementGenerator.generate(grid, type, levelCandidates);
+        if (count == 0) {
+            nodeValue = DEAD;
+            return 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int placement = levelCandidates[i];
+            TetrisGrid child = lockChild(grid, type, PlacementGenerator.rotationOf(placement),
+                    PlacementGenerator.xOf(placement), PlacementGenerator.yOf(placement));
+            levelCleared[i] = linesSoFar + child.clearRows();
+            levelScores[i] = evaluator.evaluate(child, levelCleared[i]);
+            pool.release(child);
+        }
+        evaluated += count;
+
+        // 最后一层，或者时间用完：直接用静态分数
+        if (depth < sequenceLength && System.nanoTime() >= deadline) {
+            timedOut = true;
+        }
+        if (depth == sequenceLength || timedOut) {
+            double best = DEAD;
+            for (int i = 0; i < count; i++) {
+                if (levelScores[i] > best) best = levelScores[i];
+            }
+            if (!timedOut) {
+                // 完整深度的叶子值是根节点最好分数的一个下界
+                raiseBound(best);
+            }
+            nodeValue = best;
+            return 0;
+        }
+        return selectTop(levelCandidates, levelScores, levelCleared, count, beamWidth);
+    }
+
+    // 静态分数加上剩余层数的余量仍然达不到共享下界：这棵子树不值得展开
+    boolean isFutile(double staticScore, int depth) {
+        return bound != null
+                && staticScore + futilityMargin * (sequenceLength - depth) < Double.longBitsToDouble(bound.get());
+    }
+
+    private void raiseBound(double value) {
+        if (bound == null) return;
+        long current;
+        while (value > Double.longBitsToDouble(current = bound.get())) {
+            if (bound.compareAndSet(current, Double.doubleToLongBits(value))) {
+                return;
+            }
+        }
+    }
+
+    // ======== 并行搜索的工作线程用：在自己的缓冲区里搜索别人的一棵子树 ========
+
+    // 准备搜索 sequence 的一棵子树；bound 为 null 表示不剪枝
+    void beginSubtree(TetrisGrid grid, ShapeType[] sequence, int sequenceLength, long deadline,
+                      AtomicLong bound, double futilityMargin) {
+        ensureCapacity(grid);
+        System.arraycopy(sequence, 0, this.sequence, 0, sequenceLength);
+        this.sequenceLength = sequenceLength;
+        this.deadline = deadline;
+        this.bound = bound;
+        this.futilityMargin = futilityMargin;
+        this.timedOut = false;
+        this.pruned = false;
+    }
+
+    TetrisGrid lockAndClear(TetrisGrid grid, ShapeType type, int rotation, int x, int y) {
+        TetrisGrid child = lockChild(grid, type, rotation, x, y);
+        child.clearRows();
+        return child;
+    }
+
+    void release(TetrisGrid grid) {
+        pool.release(grid);
+    }
+
+    double getNodeValue() {
+        return nodeValue;
+    }
+
+    int getLevelCandidate(int depth, int i) {
+        return candidates[depth][i];
+    }
+
+    int getLevelCleared(int depth, int i) {
+        return cleared[depth][i];
+    }
+
+    double getLevelScore(int depth, int i) {
+        return scores[depth][i];
+    }
+
+    int getRootCandidate(int i) {
+        return candidates[0][i];
+    }
+
+    int getRootCleared(int i) {
+        return cleared[0][i];
+    }
+
+    double getRootScore(int i) {
+        return scores[0][i];
+    }
+
+    void setRootScore(int i, double value) {
+        scores[0][i] = value;
+    }
+
+    MoveGenerator getMoveGenerator() {
+        return moveGenerator;
+    }
+
+    ShapeType[] getSequence() {
+        return sequence;
+    }
+
+    int getSequenceLength() {
+        return sequenceLength;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    boolean isTimedOut() {
+        return timedOut;
+    }
+
+    void markTimedOut() {
+        timedOut = true;
+    }
+
+    boolean isPruned() {
+        return pruned;
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+
+    long getEvaluated() {
+        return evaluated;
+    }
+
+    // 并行搜索把工作线程上做的量记到发起决策的实例上
+    void addWork(long nodes, long evaluated) {
+        this.nodes += nodes;
+        this.evaluated += evaluated;
+    }
+
+    // 从池里借一块网格，复制 grid 并锁定方块（不消行）
+    private TetrisGrid lockChild(TetrisGrid grid, ShapeType type, int rotation, int x, int y) {
+        TetrisGrid child = pool.copyOf(grid);
+        child.lock(RotationTable.get(type, rotation).getRowMasks(), x, y);
+        return child;
+    }
+
+    // 把分数最高的 k 个挪到数组前面（按分数从高到低），返回实际个数
+    private static int selectTop(int[] items, double[] values, int[] lines, int count, int k) {
+        int width = Math.min(k, count);
+        for (int i = 0; i < width; i++) {
+            int max = i;
+            for (int j = i + 1; j < count; j++) {
+                if (values[j] > values[max]) max = j;
+            }
+            if (max != i) {
+                int item = items[i];
+                items[i] = items[max];
+                items[max] = item;
+                double value = values[i];
+                values[i] = values[max];
+                values[max] = value;
+                int line = lines[i];
+                lines[i] = lines[max];
+                lines[max] = line;
+            }
+        }
+        return width;
+    }
+
+    private void ensureCapacity(TetrisGrid grid) {
+        if (moveGenerator == null || grid.getRows() != rows || grid.getCols() != cols) {
+            rows = grid.getRows();
+            cols = grid.getCols();
+            moveGenerator = new MoveGenerator(rows, cols);
+            pool = new GridPool(rows, cols);
+            lockStates = new int[moveGenerator.maxStates()];
+            path = new byte[Move.maxInputs(rows, cols)];
+            holdPath = new byte[Move.maxInputs(rows, cols)];
+            inputBuffer = new byte[Move.maxInputs(rows, cols)];
+            // 根节点的可达落点数量可能超过硬降落点数量，按 maxStates 分配
+            candidates = new int[maxDepth][];
+            scores = new double[maxDepth][];
+            cleared = new int[maxDepth][];
+            for (int depth = 0; depth < maxDepth; depth++) {
+                int size = depth == 0 ? moveGenerator.maxStates() : PlacementGenerator.maxPlacements(cols);
+                candidates[depth] = new int[size];
+                scores[depth] = new double[size];
+                cleared[depth] = new int[size];
+            }
+            sequence = new ShapeType[maxDepth];
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package tetris;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// 进程内的指标：延迟直方图 + 计数器，按名字注册，可以整体写进一个文本文件
+// -Dtetris.metrics=<文件> 打开，进程退出时自动写到这个文件；不设时 ENABLED 是 false，
+// 埋点都写成 if (Metrics.ENABLED) { ... }，JIT 会把整段代码连同 System.nanoTime() 一起去掉
+public final class Metrics {
+
+    public static final String METRICS_PROPERTY = "tetris.metrics";
+    public static final boolean ENABLED = System.getProperty(METRICS_PROPERTY) != null;
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentSkipListMap<>();
+
+    // 引擎和 AI 的埋点；网格的三个只统计引擎对当前方块的操作，搜索内部每步上百万次的调用不计时，
+    // 否则光 System.nanoTime() 就比操作本身还贵，还会妨碍 JIT 优化搜索的内层循环
+    public static final LatencyHistogram DECISION = histogram("ai.decision");
+    public static final LatencyHistogram IS_VALID_MOVE = histogram("grid.isValidMove");
+    public static final LatencyHistogram LOCK = histogram("grid.lockTetromino");
+    public static final LatencyHistogram CLEAR_LINES = histogram("grid.clearFullLines");
+    public static final LongAdder PIECES = counter("engine.pieces");
+    public static final LongAdder LINES = counter("engine.lines");
+    public static final LongAdder CANDIDATES = counter("ai.candidatesEvaluated");
+    public static final LongAdder NODES = counter("ai.searchNodes");
+
+    static {
+        if (ENABLED) {
+            Path file = Path.of(System.getProperty(METRICS_PROPERTY));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(file), "tetris-metrics-dump"));
+        }
+    }
+
+    private Metrics() {
+    }
+
+    // 同名的只注册一次
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    // 所有指标的文本形式：计数器一行一个，直方图一行摘要加一行非空桶
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()) {
+            sb.append("counter ").append(counter.getKey()).append(' ').append(counter.getValue().sum()).append('\n');
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            sb.append("histogram ").append(histogram.summary()).append('\n');
+            sb.append("histogram ").append(histogram.buckets()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static void dump(Path file) {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# tetris metrics " + Instant.now() + " (latencies in ns)\n");
+            writer.write(report());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void reset() {
+        for (LongAdder counter : COUNTERS.values()) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+}
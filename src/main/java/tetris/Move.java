@@ -0,0 +1,56 @@
+package tetris;
+
+// 搜索结果的打包编码：一个 long 表示一步决策，不需要为每次决策创建对象
+// 位布局: rotation [0,8) | x [8,16) | y [16,24) | hold [24] | 输入序列长度 [32,48)
+// 输入序列本身写在调用方提供的 byte[] 里，长度用 inputLength 取
+public final class Move {
+
+    // 没有任何可放置的位置
+    public static final long NONE = -1L;
+
+    private Move() {
+    }
+
+    public static long pack(int rotation, int x, int y, boolean hold, int inputLength) {
+        return (rotation & 0xFFL)
+                | (x & 0xFFL) << 8
+                | (y & 0xFFL) << 16
+                | (hold ? 1L << 24 : 0L)
+                | (inputLength & 0xFFFFL) << 32;
+    }
+
+    public static int rotationOf(long move) {
+        return (int) (move & 0xFF);
+    }
+
+    public static int xOf(long move) {
+        return (int) ((move >>> 8) & 0xFF);
+    }
+
+    public static int yOf(long move) {
+        return (int) ((move >>> 16) & 0xFF);
+    }
+
+    public static boolean isHold(long move) {
+        return (move & (1L << 24)) != 0;
+    }
+
+    public static int inputLength(long move) {
+        return (int) ((move >>> 32) & 0xFFFF);
+    }
+
+    // 输入序列缓冲区需要的长度：最长的最短路径不超过状态数，再加一个暂存
+    public static int maxInputs(int rows, int cols) {
+        return 4 * rows * cols + 1;
+    }
+
+    // 把打包的结果转成对象（会分配），用于跨线程交给 UI 执行等不在热路径上的场合
+    public static Placement toPlacement(long move, byte[] inputs) {
+        if (move == NONE) {
+            return null;
+        }
+        byte[] copy = new byte[inputLength(move)];
+        System.arraycopy(inputs, 0, copy, 0, copy.length);
+        return new Placement(rotationOf(move), xOf(move), yOf(move), copy, isHold(move));
+    }
+}
@@ -0,0 +1,150 @@
+package tetris;
+
+import java.util.Arrays;
+
+// 可达性搜索：在 (x, y, 朝向) 状态空间上做 BFS，使用和游戏完全相同的左/右/顺逆时针旋转/下落规则
+// 能找到所有真正能到达的锁定位置（包括塞进悬空下面的 tuck 和旋转卡进去的 spin），以及每个位置的最短输入序列
+// 所有缓冲区在构造时分配，搜索过程中每个节点不做任何分配；实例不是线程安全的
+public class MoveGenerator {
+
+    private final int rows;
+    private final int cols;
+    private final int stateCount;
+
+    private final long[] visited;      // 每个状态一位
+    private final int[] queue;         // BFS 队列（每个状态最多入队一次）
+    private final int[] parent;        // 到达该状态的上一个状态
+    private final byte[] parentInput;  // 从上一个状态到这里用的输入
+
+    private TetrisGrid grid;
+    private ShapeType type;
+    private int start;
+
+    public MoveGenerator(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.stateCount = 4 * rows * cols;
+        this.visited = new long[(stateCount + 63) >>> 6];
+        this.queue = new int[stateCount];
+        this.parent = new int[stateCount];
+        this.parentInput = new byte[stateCount];
+    }
+
+    // 输出缓冲区需要的最大长度
+    public int maxStates() {
+        return stateCount;
+    }
+
+    // 从 (startRotation, startX, startY) 出发，把所有可锁定的状态写入 out，返回数量
+    // 可锁定 = 该状态合法且不能再下落
+    public int generate(TetrisGrid grid, ShapeType type, int startRotation, int startX, int startY, int[] out) {
+        this.grid = grid;
+        this.type = type;
+        Arrays.fill(visited, 0L);
+
+        int count = 0;
+        if (!isValid(startRotation, startX, startY)) {
+            return 0;
+        }
+        start = state(startRotation, startX, startY);
+        int head = 0;
+        int tail = 0;
+        mark(start);
+        queue[tail++] = start;
+
+        int orientations = RotationTable.count(type);
+        while (head < tail) {
+            int current = queue[head++];
+            int rotation = rotationOf(current);
+            int x = xOf(current);
+            int y = yOf(current);
+
+            tail = visit(current, Input.LEFT, rotation, x - 1, y, tail);
+            tail = visit(current, Input.RIGHT, rotation, x + 1, y, tail);
+            if (orientations > 1) {
+                tail = visit(current, Input.ROTATE_CW, (rotation + 1) % orientations, x, y, tail);
+            }
+            if (orientations > 2) {
+                // 只有两个朝向时逆时针和顺时针到的是同一个状态
+                tail = visit(current, Input.ROTATE_CCW, (rotation + orientations - 1) % orientations, x, y, tail);
+            }
+            if (isValid(rotation, x, y + 1)) {
+                tail = visit(current, Input.SOFT_DROP, rotation, x, y + 1, tail);
+            } else {
+                // 不能再下落：这是一个锁定位置
+                out[count++] = current;
+            }
+        }
+        return count;
+    }
+
+    // 把从起点到 target 的最短输入序列写入 out，返回长度
+    // target 必须来自上一次 generate 的结果
+    public int pathTo(int target, byte[] out) {
+        return pathTo(target, out, 0);
+    }
+
+    // 同上，从 out[offset] 开始写（例如前面已经放了一个暂存输入）
+    public int pathTo(int target, byte[] out, int offset) {
+        int length = pathLength(target);
+        int i = offset + length;
+        for (int s = target; s != start; s = parent[s]) {
+            out[--i] = parentInput[s];
+        }
+        return length;
+    }
+
+    // 不重建路径，只算输入步数
+    public int pathLength(int target) {
+        int length = 0;
+        for (int s = target; s != start; s = parent[s]) {
+            length++;
+        }
+        return length;
+    }
+
+    private int visit(int from, byte input, int rotation, int x, int y, int tail) {
+        if (x < 0 || x >= cols || !isValid(rotation, x, y)) {
+            return tail;
+        }
+        int next = state(rotation, x, y);
+        if (isMarked(next)) {
+            return tail;
+        }
+        mark(next);
+        parent[next] = from;
+        parentInput[next] = input;
+        queue[tail] = next;
+        return tail + 1;
+    }
+
+    private boolean isValid(int rotation, int x, int y) {
+        Orientation orientation = RotationTable.get(type, rotation);
+        return grid.isValidMove(orientation.getRowMasks(), orientation.getWidth(), x, y);
+    }
+
+    private boolean isMarked(int s) {
+        return (visited[s >>> 6] & (1L << s)) != 0;
+    }
+
+    private void mark(int s) {
+        visited[s >>> 6] |= 1L << s;
+    }
+
+    // ======== 状态编号: (rotation * rows + y) * cols + x ========
+    private int state(int rotation, int x, int y) {
+        return (rotation * rows + y) * cols + x;
+    }
+
+    public int rotationOf(int state) {
+        return state / (rows * cols);
+    }
+
+    public int xOf(int state) {
+        return state % cols;
+    }
+
+    public int yOf(int state) {
+        return (state / cols) % rows;
+    }
+}
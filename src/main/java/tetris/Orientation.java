@@ -0,0 +1,74 @@
+package tetris;
+
+// 方块的一个朝向：预先计算好的不可变数据，运行时只读，不做任何分配
+public final class Orientation {
+
+    private final ShapeType type;
+    private final int index;        // 在该方块朝向表中的下标（顺时针旋转次数）
+    private final int[][] matrix;   // 兼容旧代码的形状矩阵（只读）
+    private final int[] rowMasks;   // 每行掩码，第 c 位对应形状第 c 列
+    private final int width;
+    private final int height;
+    private final int[] bottom;     // 每列最下面一个格子的行号（相对形状顶部）
+    private final int[] top;        // 每列最上面一个格子的行号（相对形状顶部）
+
+    Orientation(ShapeType type, int index, int[][] matrix) {
+        this.type = type;
+        this.index = index;
+        this.matrix = matrix;
+        this.height = matrix.length;
+        this.width = matrix[0].length;
+        this.rowMasks = new int[height];
+        this.bottom = new int[width];
+        this.top = new int[width];
+        for (int c = 0; c < width; c++) {
+            top[c] = -1;
+            bottom[c] = -1;
+        }
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                if (matrix[r][c] == 1) {
+                    rowMasks[r] |= 1 << c;
+                    if (top[c] < 0) {
+                        top[c] = r;
+                    }
+                    bottom[c] = r;
+                }
+            }
+        }
+    }
+
+    public ShapeType getType() {
+        return type;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    // 返回共享的矩阵，调用方不得修改
+    public int[][] getMatrix() {
+        return matrix;
+    }
+
+    // 返回共享的掩码数组，调用方不得修改
+    public int[] getRowMasks() {
+        return rowMasks;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getBottom(int col) {
+        return bottom[col];
+    }
+
+    public int getTop(int col) {
+        return top[col];
+    }
+}
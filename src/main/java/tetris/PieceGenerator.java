@@ -0,0 +1,25 @@
+package tetris;
+
+// 出块序列的来源，每局一个实例（带自己的种子），不同对局之间没有共享的随机数状态
+// 同样的种子总是给出同样的序列，对局和基准测试都可以复现
+public interface PieceGenerator {
+
+    ShapeType next();
+
+    // 一次生成接下来的 count 个方块写入 out[offset, offset + count)，结果和连续调用 count 次 next() 相同
+    default void next(ShapeType[] out, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = next();
+        }
+    }
+
+    // 内置的出块规则；回放文件里只记种子和规则，靠它重建同样的序列
+    enum Kind {
+        UNIFORM,
+        BAG;
+
+        public PieceGenerator create(long seed) {
+            return this == BAG ? new BagPieceGenerator(seed) : new UniformPieceGenerator(seed);
+        }
+    }
+}
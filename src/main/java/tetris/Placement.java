@@ -0,0 +1,45 @@
+package tetris;
+
+// AI 选出的落点：朝向下标 + 左上角坐标 + 从当前位置到达落点的输入序列
+// hold 为 true 时，落点属于暂存后换出来的方块，输入序列以 Input.HOLD 开头
+public class Placement {
+
+    private final int rotation;
+    private final int x;
+    private final int y;
+    private final byte[] inputs;
+    private final boolean hold;
+
+    public Placement(int rotation, int x, int y, byte[] inputs) {
+        this(rotation, x, y, inputs, false);
+    }
+
+    public Placement(int rotation, int x, int y, byte[] inputs, boolean hold) {
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.inputs = inputs;
+        this.hold = hold;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public boolean isHold() {
+        return hold;
+    }
+
+    // Input 中定义的输入指令，按执行顺序排列
+    public byte[] getInputs() {
+        return inputs;
+    }
+}
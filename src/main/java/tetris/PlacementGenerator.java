@@ -0,0 +1,58 @@
+package tetris;
+
+// 落点生成器：用每列高度 + 朝向的底部轮廓直接算出硬降的落点，每个 (朝向, 列) 只需 O(宽度)
+// 落点是“从上方直接落下”的位置，不会穿过悬空的方块去找下面的空洞
+// 结果按 朝向 -> 列 从左到右 的顺序写进调用方提供的 int[]，每个 (朝向, 列) 最多出现一次
+public class PlacementGenerator {
+
+    // 打包格式: rotation(8 位) | x(8 位) | y(8 位)
+    public static int pack(int rotation, int x, int y) {
+        return (rotation << 16) | (x << 8) | y;
+    }
+
+    public static int rotationOf(int placement) {
+        return placement >>> 16;
+    }
+
+    public static int xOf(int placement) {
+        return (placement >>> 8) & 0xFF;
+    }
+
+    public static int yOf(int placement) {
+        return placement & 0xFF;
+    }
+
+    // 一个方块在 cols 列宽的棋盘上最多有多少个落点，用来分配缓冲区
+    public static int maxPlacements(int cols) {
+        return 4 * cols;
+    }
+
+    // 返回写入 out 的落点数量
+    public int generate(TetrisGrid grid, ShapeType type, int[] out) {
+        int count = 0;
+        for (int rotation = 0; rotation < RotationTable.count(type); rotation++) {
+            Orientation orientation = RotationTable.get(type, rotation);
+            for (int x = 0; x <= grid.getCols() - orientation.getWidth(); x++) {
+                int y = landingRow(grid, orientation, x);
+                if (y >= 0) {
+                    out[count++] = pack(rotation, x, y);
+                }
+            }
+        }
+        return count;
+    }
+
+    // 该朝向在第 x 列硬降后左上角所在的行，放不下（顶到天花板）时返回 -1
+    public static int landingRow(TetrisGrid grid, Orientation orientation, int x) {
+        int rows = grid.getRows();
+        int y = rows - orientation.getHeight();
+        for (int c = 0; c < orientation.getWidth(); c++) {
+            // 该列最上面已占用格子的行号为 rows - height，方块这一列的底部必须在它上面
+            int limit = rows - grid.getColumnHeight(x + c) - 1 - orientation.getBottom(c);
+            if (limit < y) {
+                y = limit;
+            }
+        }
+        return y;
+    }
+}
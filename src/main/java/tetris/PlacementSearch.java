@@ -0,0 +1,101 @@
+package tetris;
+
+// AI 的落点搜索，不依赖 JavaFX 也不依赖静态状态
+// 候选落点来自 MoveGenerator 的可达性搜索，所以选出的位置一定能用真实输入到达
+// 规则：每个落点锁定并消行后交给 Evaluator 打分，分数高者胜，分数一样再比输入步数更少
+// 热路径 findMove 把结果打包成 long（见 Move），输入序列写进调用方的缓冲区，每次决策不分配内存
+public class PlacementSearch implements HeadlessPlayer {
+
+    private final Evaluator evaluator;
+    private TetrisGrid scratch;
+    private MoveGenerator moveGenerator;
+    private int[] lockStates;
+    private byte[] path;
+    private int rows;
+    private int cols;
+
+    public PlacementSearch() {
+        this(new LinearEvaluator());
+    }
+
+    public PlacementSearch(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    @Override
+    public void playPiece(GameEngine engine) {
+        ensureCapacity(engine.getGrid());
+        long move = findMove(engine.getGrid(), engine.getCurrentTetromino(), path);
+        if (move != Move.NONE) {
+            // 落点已确认可达，无界面模式下直接移过去，省去逐条执行输入
+            engine.moveTo(Move.rotationOf(move), Move.xOf(move), Move.yOf(move));
+            // 路径以旋转结束的落点可能是 T-spin，计分要知道
+            int length = Move.inputLength(move);
+            if (length > 0) {
+                engine.recordFinalInput(path[length - 1]);
+            }
+        }
+        engine.hardDrop();
+    }
+
+    // 返回最佳落点，没有任何可放置的位置时返回 null（会分配 Placement，热路径用 findMove）
+    public Placement findBest(TetrisGrid grid, Tetromino tetromino) {
+        ensureCapacity(grid);
+        return Move.toPlacement(findMove(grid, tetromino, path), path);
+    }
+
+    // 返回打包的最佳落点（没有可放置的位置时返回 Move.NONE），输入序列写进 inputs
+    // inputs 的长度至少为 Move.maxInputs(rows, cols)
+    public long findMove(TetrisGrid grid, Tetromino tetromino, byte[] inputs) {
+        ensureCapacity(grid);
+
+        int count = moveGenerator.generate(grid, tetromino.getType(),
+                tetromino.getRotation(), tetromino.getX(), tetromino.getY(), lockStates);
+
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        // 这个是“当前最好的输入步数”，如果分数一样才比较步数
+        int bestSteps = Integer.MAX_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            int state = lockStates[i];
+            Orientation orientation = RotationTable.get(tetromino.getType(), moveGenerator.rotationOf(state));
+
+            // 在草稿网格上锁定并消行，然后打分
+            scratch.copyFrom(grid);
+            scratch.lock(orientation.getRowMasks(), moveGenerator.xOf(state), moveGenerator.yOf(state));
+            int cleared = scratch.clearRows();
+            double score = evaluator.evaluate(scratch, cleared);
+
+            if (score > bestScore) {
+                bestScore = score;
+                best = state;
+                bestSteps = moveGenerator.pathLength(state);
+            } else if (score == bestScore) {
+                int steps = moveGenerator.pathLength(state);
+                if (steps < bestSteps) {
+                    best = state;
+                    bestSteps = steps;
+                }
+            }
+        }
+        if (best < 0) {
+            return Move.NONE;
+        }
+
+        int length = moveGenerator.pathTo(best, inputs);
+        return Move.pack(moveGenerator.rotationOf(best), moveGenerator.xOf(best), moveGenerator.yOf(best),
+                false, length);
+    }
+
+    private void ensureCapacity(TetrisGrid grid) {
+        if (moveGenerator == null || grid.getRows() != rows || grid.getCols() != cols) {
+            rows = grid.getRows();
+            cols = grid.getCols();
+            moveGenerator = new MoveGenerator(grid.getRows(), grid.getCols());
+            lockStates = new int[moveGenerator.maxStates()];
+            path = new byte[Move.maxInputs(rows, cols)];
+            scratch = new TetrisGrid(rows, cols);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+
+// 回放文件格式（小端无关，全部按字节写）
+//   文件头: "TRP1" | 版本 1 字节 | 出块规则 1 字节 | 种子 8 字节 | rows, cols, previewLength (varint)
+//           | 起始等级 (varint) | 锁定延迟纳秒数 8 字节 | 锁定计时最多重置次数 (varint)
+//   每个方块: 头字节 [0,3) 类型 | [3,5) 朝向 | [5] 暂存过 | [6] 带输入序列 | [7] 不在硬降落点
+//             x - SPAWN_X (zigzag varint)
+//             [y - 硬降落点 (zigzag varint)，只有塞到悬空下面时才有]
+//             [输入序列长度 varint | 每字节两个输入，低 4 位在前，取值是 Input 的编码（包括 ROTATE_CCW）]
+//   结束: 类型字段为 7 的头字节 | 方块数, 分数, 消行数 (varint)，回放完用来校验
+// 无界面 AI 对局每个方块通常只占 2 字节
+// 方块序列由种子和出块规则决定，不单独存；头字节里的类型只用来发现回放和记录对不上
+final class ReplayFormat {
+
+    static final int MAGIC = 0x54525031;   // "TRP1"
+    static final byte VERSION = 3;     // 2：标准计分，最后一个输入参与 T-spin 判定；3：文件头带规则参数
+    static final int TYPE_MASK = 0x7;
+    static final int END = TYPE_MASK;     // 方块类型只有 0-6，7 用作结束标记
+
+    static final int HOLD_BIT = 1 << 5;
+    static final int PATH_BIT = 1 << 6;
+    static final int OFFSET_BIT = 1 << 7;
+
+    private ReplayFormat() {
+    }
+
+    static int header(ShapeType type, int rotation, boolean hold, boolean hasPath, boolean hasOffset) {
+        return type.ordinal() | rotation << 3 | (hold ? HOLD_BIT : 0) | (hasPath ? PATH_BIT : 0)
+                | (hasOffset ? OFFSET_BIT : 0);
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed varint in replay");
+    }
+
+    static void putSignedVarint(ByteBuffer buffer, int value) {
+        putVarint(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    static int getSignedVarint(ByteBuffer buffer) {
+        int zigzag = getVarint(buffer);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    // 锁定位置相对于硬降落点的偏移，塞到悬空下面的落点才不是 0
+    static int landingOffset(TetrisGrid grid, Tetromino piece) {
+        return piece.getY() - PlacementGenerator.landingRow(grid, piece.getOrientation(), piece.getX());
+    }
+}
@@ -0,0 +1,151 @@
+package tetris;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 回放：按文件头重建同样的引擎（出块器、尺寸、规则参数），然后逐个方块把记录的落点直接放上去
+// step() 一次放一个方块（界面里单步看），fastForward() 无界面一口气放完
+// 每一步都检查方块类型和落点合法性，对不上说明回放和记录时的规则不一致，抛 IllegalStateException
+public class ReplayPlayer {
+
+    private static final ShapeType[] SHAPES = ShapeType.values();
+
+    private final ByteBuffer data;
+    private final PieceGenerator.Kind kind;
+    private final long seed;
+    private final GameEngine engine;
+    private boolean finished;
+
+    public ReplayPlayer(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // 读满为止
+            }
+            data.flip();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (data.getInt() != ReplayFormat.MAGIC) {
+            throw new IllegalStateException(file + " is not a replay file");
+        }
+        byte version = data.get();
+        if (version != ReplayFormat.VERSION) {
+            throw new IllegalStateException("unsupported replay version " + version);
+        }
+        kind = PieceGenerator.Kind.values()[data.get()];
+        seed = data.getLong();
+        int rows = ReplayFormat.getVarint(data);
+        int cols = ReplayFormat.getVarint(data);
+        int previewLength = ReplayFormat.getVarint(data);
+        int startLevel = ReplayFormat.getVarint(data);
+        long lockDelayNanos = data.getLong();
+        int maxLockResets = ReplayFormat.getVarint(data);
+        GameRules rules = new GameRules(startLevel, lockDelayNanos, maxLockResets);
+        engine = new GameEngine(rows, cols, kind.create(seed), previewLength, rules);
+        engine.setPublishSnapshots(false);
+    }
+
+    // 放下一个方块，回放结束时返回 false
+    public boolean step() {
+        if (finished) {
+            return false;
+        }
+        if (!data.hasRemaining()) {
+            // 记录没有正常关闭（例如进程被杀掉），放到哪算哪
+            finished = true;
+            return false;
+        }
+        int header = data.get() & 0xFF;
+        if ((header & ReplayFormat.TYPE_MASK) == ReplayFormat.END) {
+            finish();
+            return false;
+        }
+        ShapeType type = SHAPES[header & ReplayFormat.TYPE_MASK];
+        int rotation = (header >>> 3) & 0x3;
+        int x = Tetromino.SPAWN_X + ReplayFormat.getSignedVarint(data);
+        int offset = (header & ReplayFormat.OFFSET_BIT) != 0 ? ReplayFormat.getSignedVarint(data) : 0;
+        byte lastInput = 0;
+        if ((header & ReplayFormat.PATH_BIT) != 0) {
+            // 回放直接用落点，输入序列只看最后一个：以旋转结束的可能是 T-spin，计分要用
+            int inputs = ReplayFormat.getVarint(data);
+            int packed = data.get(data.position() + (inputs - 1) / 2);
+            lastInput = (byte) ((inputs - 1) % 2 == 0 ? packed & 0xF : (packed >>> 4) & 0xF);
+            data.position(data.position() + (inputs + 1) / 2);
+        }
+
+        if ((header & ReplayFormat.HOLD_BIT) != 0 && !engine.hold()) {
+            throw diverged("hold not allowed");
+        }
+        Tetromino piece = engine.getCurrentTetromino();
+        if (piece.getType() != type) {
+            throw diverged("expected " + type + " but engine has " + piece.getType());
+        }
+        Orientation orientation = RotationTable.get(type, rotation);
+        int y = PlacementGenerator.landingRow(engine.getGrid(), orientation, x) + offset;
+        if (!engine.moveTo(rotation, x, y)) {
+            throw diverged("placement " + type + " r" + rotation + " (" + x + ", " + y + ") is not valid");
+        }
+        engine.recordFinalInput(lastInput);
+        engine.hardDrop();
+        return true;
+    }
+
+    // 一直放到结束，返回结束时的引擎
+    public GameEngine fastForward() {
+        while (step()) {
+            // 继续
+        }
+        return engine;
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public PieceGenerator.Kind getKind() {
+        return kind;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // 结束标记后面是记录时的结果，和回放的结果对一下
+    private void finish() {
+        finished = true;
+        int pieces = ReplayFormat.getVarint(data);
+        int score = ReplayFormat.getVarint(data);
+        int lines = ReplayFormat.getVarint(data);
+        if (pieces != engine.getPiecesPlaced() || score != engine.getScore() || lines != engine.getLinesCleared()) {
+            throw diverged("recorded pieces=" + pieces + " score=" + score + " lines=" + lines
+                    + ", replayed pieces=" + engine.getPiecesPlaced() + " score=" + engine.getScore()
+                    + " lines=" + engine.getLinesCleared());
+        }
+    }
+
+    private IllegalStateException diverged(String message) {
+        return new IllegalStateException("replay diverged at piece " + engine.getPiecesPlaced() + ": " + message);
+    }
+
+    // 用法: ReplayPlayer <file>...  无界面快进并校验，打印每个文件的结果和速度
+    public static void main(String[] args) {
+        for (String arg : args) {
+            long start = System.nanoTime();
+            ReplayPlayer player = new ReplayPlayer(Path.of(arg));
+            GameEngine engine = player.fastForward();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s: %s seed=%d %s pieces=%d score=%d lines=%d (%.0f pieces/s)%n", arg, player.kind,
+                    player.seed, engine.getRules(), engine.getPiecesPlaced(), engine.getScore(),
+                    engine.getLinesCleared(), engine.getPiecesPlaced() / seconds);
+        }
+    }
+}
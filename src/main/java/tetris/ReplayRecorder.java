@@ -0,0 +1,109 @@
+package tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 边玩边写回放：注册成引擎的 LockListener，每个方块锁定时追加一条记录（通常 2 字节）
+// 记录先攒在直接缓冲区里，满了才写进 FileChannel；对局结束后调用 close() 写结束标记
+// 格式见 ReplayFormat
+public class ReplayRecorder implements LockListener, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private GameEngine engine;
+
+    // kind + seed 必须和引擎实际用的出块器一致，回放靠它重建方块序列；rules 是引擎创建时用的规则，回放按它重建引擎
+    public ReplayRecorder(Path file, PieceGenerator.Kind kind, long seed, int rows, int cols, int previewLength,
+                          GameRules rules) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.putInt(ReplayFormat.MAGIC);
+        buffer.put(ReplayFormat.VERSION);
+        buffer.put((byte) kind.ordinal());
+        buffer.putLong(seed);
+        ReplayFormat.putVarint(buffer, rows);
+        ReplayFormat.putVarint(buffer, cols);
+        ReplayFormat.putVarint(buffer, previewLength);
+        ReplayFormat.putVarint(buffer, rules.getStartLevel());
+        buffer.putLong(rules.getLockDelayNanos());
+        ReplayFormat.putVarint(buffer, rules.getMaxLockResets());
+    }
+
+    // 开始记录这个引擎，引擎必须是用同样的 kind + seed + rules 刚创建的
+    public void attach(GameEngine engine) {
+        this.engine = engine;
+        engine.setLockListener(this);
+    }
+
+    @Override
+    public void onLock(GameEngine engine) {
+        Tetromino piece = engine.getCurrentTetromino();
+        int inputs = engine.getPieceInputCount();
+        int offset = ReplayFormat.landingOffset(engine.getGrid(), piece);
+        ensure(16);
+        buffer.put((byte) ReplayFormat.header(piece.getType(), piece.getRotation(), !engine.canHold(), inputs > 0,
+                offset != 0));
+        ReplayFormat.putSignedVarint(buffer, piece.getX() - Tetromino.SPAWN_X);
+        if (offset != 0) {
+            ReplayFormat.putSignedVarint(buffer, offset);
+        }
+        if (inputs > 0) {
+            ReplayFormat.putVarint(buffer, inputs);
+            for (int i = 0; i < inputs; i += 2) {
+                int low = engine.getPieceInput(i);
+                int high = i + 1 < inputs ? engine.getPieceInput(i + 1) : 0;
+                ensure(1);
+                buffer.put((byte) (low | high << 4));
+            }
+        }
+    }
+
+    // 写结束标记和最终结果，然后关闭文件
+    @Override
+    public void close() {
+        try {
+            ensure(16);
+            buffer.put((byte) ReplayFormat.END);
+            ReplayFormat.putVarint(buffer, engine == null ? 0 : engine.getPiecesPlaced());
+            ReplayFormat.putVarint(buffer, engine == null ? 0 : engine.getScore());
+            ReplayFormat.putVarint(buffer, engine == null ? 0 : engine.getLinesCleared());
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (engine != null) {
+                engine.setLockListener(null);
+            }
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,87 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// 每种方块所有不同朝向的静态表，类加载时计算一次
+// 对称的朝向会去重：O 只有 1 个，I/S/Z 各 2 个，T/L/J 各 4 个
+public final class RotationTable {
+
+    private static final int[][][] SHAPES = {
+            // I
+            {{1, 1, 1, 1}},
+            // O
+            {{1, 1}, {1, 1}},
+            // T
+            {{0, 1, 0}, {1, 1, 1}},
+            // S
+            {{0, 1, 1}, {1, 1, 0}},
+            // Z
+            {{1, 1, 0}, {0, 1, 1}},
+            // L
+            {{1, 0}, {1, 0}, {1, 1}},
+            // J
+            {{0, 1}, {0, 1}, {1, 1}}
+    };
+
+    private static final Orientation[][] TABLE = new Orientation[ShapeType.values().length][];
+
+    static {
+        for (ShapeType type : ShapeType.values()) {
+            List<Orientation> orientations = new ArrayList<>(4);
+            int[][] matrix = SHAPES[type.ordinal()];
+            // 不断顺时针旋转，直到回到已经出现过的朝向为止
+            while (orientations.size() < 4 && !contains(orientations, matrix)) {
+                orientations.add(new Orientation(type, orientations.size(), matrix));
+                matrix = rotateClockwise(matrix);
+            }
+            TABLE[type.ordinal()] = orientations.toArray(new Orientation[0]);
+        }
+    }
+
+    private RotationTable() {
+    }
+
+    public static Orientation get(ShapeType type, int rotation) {
+        return TABLE[type.ordinal()][rotation];
+    }
+
+    // 该方块不同朝向的数量 (1, 2 或 4)
+    public static int count(ShapeType type) {
+        return TABLE[type.ordinal()].length;
+    }
+
+    // 查找与给定矩阵完全一致的朝向下标，找不到返回 -1
+    public static int indexOf(ShapeType type, int[][] matrix) {
+        Orientation[] orientations = TABLE[type.ordinal()];
+        for (Orientation orientation : orientations) {
+            if (Arrays.deepEquals(orientation.getMatrix(), matrix)) {
+                return orientation.getIndex();
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(List<Orientation> orientations, int[][] matrix) {
+        for (Orientation orientation : orientations) {
+            if (Arrays.deepEquals(orientation.getMatrix(), matrix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[][] rotateClockwise(int[][] matrix) {
+        int rows = matrix.length;
+        int cols = matrix[0].length;
+        int[][] rotated = new int[cols][rows];
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                rotated[j][rows - i - 1] = matrix[i][j];
+            }
+        }
+        return rotated;
+    }
+}
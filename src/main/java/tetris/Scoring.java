@@ -0,0 +1,120 @@
+package tetris;
+
+// 标准（guideline）计分规则：消行、T-spin（三角判定）、连击、背靠背、全消，分数都乘以当前等级
+// 只有静态的规则和查表，每局的连击/背靠背状态在 GameStats 里
+public final class Scoring {
+
+    public static final int NO_SPIN = 0;
+    public static final int MINI = 1;
+    public static final int FULL = 2;
+
+    // 下标是消除的行数
+    private static final int[] LINE_CLEAR = {0, 100, 300, 500, 800};
+    private static final int[] T_SPIN = {400, 800, 1200, 1600};
+    private static final int[] T_SPIN_MINI = {100, 200, 400};
+    private static final int[] PERFECT_CLEAR = {0, 800, 1200, 1800, 2000};
+    private static final int BACK_TO_BACK_PERFECT_TETRIS = 3200;
+    private static final int COMBO = 50;
+
+    // T 每个朝向的 3x3 判定框：中心格相对方块左上角的位置，以及四个角相对中心的位置，前两个是尖端一侧的角
+    private static final int[][] T_CENTER = new int[4][];
+    private static final int[][][] T_CORNERS = new int[4][][];
+
+    static {
+        for (int rotation = 0; rotation < RotationTable.count(ShapeType.T); rotation++) {
+            int[][] matrix = RotationTable.get(ShapeType.T, rotation).getMatrix();
+            // 中心是唯一有三个相邻格子的格子，尖端朝着另外三个方向里和缺口相反的那一侧
+            for (int r = 0; r < matrix.length; r++) {
+                for (int c = 0; c < matrix[0].length; c++) {
+                    if (matrix[r][c] == 1 && neighbours(matrix, r, c) == 3) {
+                        T_CENTER[rotation] = new int[]{c, r};
+                        int dx = 0;
+                        int dy = 0;
+                        if (!filled(matrix, r - 1, c)) dy = 1;
+                        else if (!filled(matrix, r + 1, c)) dy = -1;
+                        else if (!filled(matrix, r, c - 1)) dx = 1;
+                        else dx = -1;
+                        // 尖端方向 (dx, dy)，前角在尖端一侧，后角在缺口一侧
+                        T_CORNERS[rotation] = dx == 0
+                                ? new int[][]{{-1, dy}, {1, dy}, {-1, -dy}, {1, -dy}}
+                                : new int[][]{{dx, -1}, {dx, 1}, {-dx, -1}, {-dx, 1}};
+                    }
+                }
+            }
+        }
+    }
+
+    private Scoring() {
+    }
+
+    // 三角判定：T 的最后一个动作是旋转，且 3x3 判定框的四个角至少占了三个（墙和地板算占用）
+    // 尖端一侧的两个角都占了是 T-spin，否则是 mini。piece 在最终位置、还没锁定；只查四个格子
+    public static int tSpin(TetrisGrid grid, Tetromino piece, boolean lastMoveRotation) {
+        if (!lastMoveRotation || piece.getType() != ShapeType.T) {
+            return NO_SPIN;
+        }
+        int rotation = piece.getRotation();
+        int cx = piece.getX() + T_CENTER[rotation][0];
+        int cy = piece.getY() + T_CENTER[rotation][1];
+        int[][] corners = T_CORNERS[rotation];
+        int front = 0;
+        int back = 0;
+        for (int i = 0; i < 4; i++) {
+            if (blocked(grid, cx + corners[i][0], cy + corners[i][1])) {
+                if (i < 2) front++; else back++;
+            }
+        }
+        if (front + back < 3) {
+            return NO_SPIN;
+        }
+        return front == 2 ? FULL : MINI;
+    }
+
+    // 一次锁定的基础分（还没乘等级，不含连击），背靠背时乘 1.5
+    public static int clearPoints(int lines, int spin, boolean backToBack) {
+        int points;
+        if (spin == FULL) {
+            points = T_SPIN[Math.min(lines, T_SPIN.length - 1)];
+        } else if (spin == MINI) {
+            points = T_SPIN_MINI[Math.min(lines, T_SPIN_MINI.length - 1)];
+        } else {
+            points = LINE_CLEAR[Math.min(lines, LINE_CLEAR.length - 1)];
+        }
+        return backToBack ? points * 3 / 2 : points;
+    }
+
+    // 连击奖励：combo 是连续消行的次数减一（第二次连续消行为 1）
+    public static int comboPoints(int combo) {
+        return combo > 0 ? COMBO * combo : 0;
+    }
+
+    public static int perfectClearPoints(int lines, boolean backToBack) {
+        if (lines >= 4 && backToBack) {
+            return BACK_TO_BACK_PERFECT_TETRIS;
+        }
+        return PERFECT_CLEAR[Math.min(lines, PERFECT_CLEAR.length - 1)];
+    }
+
+    // 四行消除和带消行的 T-spin（包括 mini）是"难"的消除，连续的难消除之间没有普通消行就是背靠背
+    public static boolean isDifficult(int lines, int spin) {
+        return lines > 0 && (lines >= 4 || spin != NO_SPIN);
+    }
+
+    private static boolean blocked(TetrisGrid grid, int col, int row) {
+        return col < 0 || col >= grid.getCols() || row < 0 || row >= grid.getRows()
+                || (grid.getRowMask(row) & (1 << col)) != 0;
+    }
+
+    private static int neighbours(int[][] matrix, int r, int c) {
+        int count = 0;
+        if (filled(matrix, r - 1, c)) count++;
+        if (filled(matrix, r + 1, c)) count++;
+        if (filled(matrix, r, c - 1)) count++;
+        if (filled(matrix, r, c + 1)) count++;
+        return count;
+    }
+
+    private static boolean filled(int[][] matrix, int r, int c) {
+        return r >= 0 && r < matrix.length && c >= 0 && c < matrix[0].length && matrix[r][c] == 1;
+    }
+}
@@ -0,0 +1,98 @@
+package tetris;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongPredicate;
+
+// 固定步长的模拟时钟：把真实时间乘上倍速换算成模拟时间，按 TICK_NANOS 一步一步推进游戏，和画面刷新无关
+// 每帧调用一次 advance，欠下多少步就补多少步；画面只在推进完之后画最新的状态，倍速再高也不会多画
+// 倍速可以随时改，Double.POSITIVE_INFINITY 表示"能多快就多快"：每帧在 FRAME_BUDGET_NANOS 的真实时间内尽量多推进
+// 不依赖 JavaFX，也不是线程安全的，所有方法都在同一个线程（UI 线程）里调用
+public final class SimulationClock {
+
+    // 模拟时间的步长：每秒 60 步
+    public static final long TICK_NANOS = 1_000_000_000L / 60;
+    // 每帧用于推进模拟的真实时间上限，剩下的留给绘制；追不上时丢掉欠的步数，实际倍速会低于设定值
+    public static final long FRAME_BUDGET_NANOS = 8_000_000L;
+    // 两帧之间最多按这么长的真实时间算（窗口被拖动、GC 停顿之后不会一下补出几秒的游戏）
+    private static final long MAX_FRAME_NANOS = 100_000_000L;
+    // 等待期间每次让出的真实时间
+    private static final long WAIT_NANOS = 100_000L;
+
+    private double speed = 1.0;
+    private long simulatedNanos;
+    private double accumulatorNanos;
+    private long lastRealNanos;
+    private boolean hasReference;
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    // 倍速：正数，或者 Double.POSITIVE_INFINITY
+    public void setSpeed(double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed must be positive, got " + speed);
+        }
+        this.speed = speed;
+        accumulatorNanos = 0;
+    }
+
+    public boolean isUnlimited() {
+        return speed == Double.POSITIVE_INFINITY;
+    }
+
+    // 从开始到现在推进过的模拟时间
+    public long getSimulatedNanos() {
+        return simulatedNanos;
+    }
+
+    // 暂停之后调用：下一次 advance 重新取真实时间的起点，暂停的这段时间不算
+    public void resync() {
+        hasReference = false;
+        accumulatorNanos = 0;
+    }
+
+    // 按真实时间 realNow 推进模拟，step 在每个模拟步调用一次（参数是这一步结束时的模拟时间，返回状态是否改变）
+    // blocked 为 true 时模拟时间停住，例如 AI 还没给出当前方块的决策；快进时本帧预算内会等它，等不到就留到下一帧
+    // 返回这一帧有没有改变过状态
+    public boolean advance(long realNow, LongPredicate step, BooleanSupplier blocked) {
+        long start = System.nanoTime();
+        if (!hasReference) {
+            hasReference = true;
+            lastRealNanos = realNow;
+            return false;
+        }
+        long elapsed = Math.min(realNow - lastRealNanos, MAX_FRAME_NANOS);
+        lastRealNanos = realNow;
+        boolean unlimited = isUnlimited();
+        if (!unlimited && elapsed > 0) {
+            accumulatorNanos += elapsed * speed;
+        }
+
+        boolean changed = false;
+        while (unlimited || accumulatorNanos >= TICK_NANOS) {
+            if (System.nanoTime() - start >= FRAME_BUDGET_NANOS) {
+                // 追不上了：欠的步数不再补
+                accumulatorNanos = Math.min(accumulatorNanos, TICK_NANOS);
+                break;
+            }
+            if (blocked.getAsBoolean()) {
+                if (speed <= 1) {
+                    break;
+                }
+                // 快进时在本帧内等一会儿，否则每帧最多只能走一个方块
+                LockSupport.parkNanos(WAIT_NANOS);
+                continue;
+            }
+            simulatedNanos += TICK_NANOS;
+            accumulatorNanos -= TICK_NANOS;
+            changed |= step.test(simulatedNanos);
+        }
+        if (blocked.getAsBoolean()) {
+            // 等待期间模拟时间不走，等到了也不补
+            accumulatorNanos = Math.min(accumulatorNanos, TICK_NANOS);
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,283 @@
+package tetris;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// 并行批量跑无界面的 AI 对局
+// 每局有独立的种子和独立的引擎，每个工作线程有自己的玩家实例（连同置换表等缓存）跨叶子任务复用，线程之间没有共享的可变状态
+// 结果写入按局编号划分的数组槽位，跑完后统一汇总；消除统计每个任务各累计一份，沿着任务树合并
+public class SimulationRunner {
+
+    // 每个叶子任务最多连续跑多少局，剩下的交给 ForkJoin 拆分/窃取
+    private static final int GAMES_PER_TASK = 8;
+
+    // -Dtetris.replayDir=<目录>：每局写一个回放文件 game-<种子>.replay
+    private static final String REPLAY_DIR = System.getProperty("tetris.replayDir");
+    // -Dtetris.dataset=<文件>：所有对局的每个决策写进一个内存映射的数据集，格式见 DatasetFormat
+    private static final String DATASET = System.getProperty("tetris.dataset");
+
+    private final int games;
+    private final long baseSeed;
+    private final int maxPieces;
+    private final int parallelism;
+    // 每个工作线程第一次用到时从 playerFactory 创建一个，线程池关掉后随线程一起回收
+    private final ThreadLocal<HeadlessPlayer> players;
+    private Consumer<? super HeadlessPlayer> batchListener = player -> { };
+
+    public SimulationRunner(int games, long baseSeed, int maxPieces, int parallelism,
+                            Supplier<? extends HeadlessPlayer> playerFactory) {
+        this.games = games;
+        this.baseSeed = baseSeed;
+        this.maxPieces = maxPieces;
+        this.parallelism = parallelism;
+        this.players = ThreadLocal.withInitial(playerFactory);
+    }
+
+    // 每个叶子任务跑完后在它的线程里用该线程的玩家实例调用一次，用来把玩家里累计的统计（例如搜索深度）汇总出去
+    public void setBatchListener(Consumer<? super HeadlessPlayer> batchListener) {
+        this.batchListener = batchListener;
+    }
+
+    // 第 index 局的种子：只由基础种子和局号决定，与线程数无关，保证可复现
+    public static long seedFor(long baseSeed, int index) {
+        long z = baseSeed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public Report run() {
+        int[] scores = new int[games];
+        int[] lines = new int[games];
+        int[] pieces = new int[games];
+
+        DatasetWriter dataset = DATASET == null ? null
+                : new DatasetWriter(Path.of(DATASET), GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS);
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        GameStats stats;
+        try {
+            stats = pool.invoke(new GameBatch(0, games, scores, lines, pieces, dataset));
+        } finally {
+            pool.shutdown();
+            if (dataset != null) {
+                dataset.close();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        return new Report(games, elapsedNanos, scores, lines, pieces, stats);
+    }
+
+    // 跑一局（最多 maxPieces 个方块），返回结束时的引擎
+    static GameEngine playGame(HeadlessPlayer player, long seed, int maxPieces) {
+        return playGame(player, seed, maxPieces, null);
+    }
+
+    // dataset 不为 null 时把这一局的每个决策写进去，对局结束后回填结果
+    static GameEngine playGame(HeadlessPlayer player, long seed, int maxPieces, DatasetWriter dataset) {
+        GameEngine engine = new GameEngine(seed);
+        engine.setPublishSnapshots(false);
+        ReplayRecorder recorder = null;
+        if (REPLAY_DIR != null) {
+            recorder = new ReplayRecorder(Path.of(REPLAY_DIR, "game-" + Long.toHexString(seed) + ".replay"),
+                    PieceGenerator.Kind.BAG, seed, GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS,
+                    GameEngine.DEFAULT_PREVIEW, engine.getRules());
+            recorder.attach(engine);
+        }
+        DatasetWriter.Game record = null;
+        if (dataset != null) {
+            record = dataset.beginGame(seed);
+            engine.setLockListener(recorder == null ? record : recorder.andThen(record));
+        }
+        try {
+            while (!engine.isGameOver() && engine.getPiecesPlaced() < maxPieces) {
+                player.playPiece(engine);
+            }
+        } finally {
+            if (record != null) {
+                record.finish(engine);
+            }
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
+        return engine;
+    }
+
+    private class GameBatch extends RecursiveTask<GameStats> {
+        private final int from;
+        private final int to;
+        private final int[] scores;
+        private final int[] lines;
+        private final int[] pieces;
+        private final DatasetWriter dataset;
+
+        GameBatch(int from, int to, int[] scores, int[] lines, int[] pieces, DatasetWriter dataset) {
+            this.from = from;
+            this.to = to;
+            this.scores = scores;
+            this.lines = lines;
+            this.pieces = pieces;
+            this.dataset = dataset;
+        }
+
+        @Override
+        protected GameStats compute() {
+            if (to - from > GAMES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                GameBatch left = new GameBatch(from, mid, scores, lines, pieces, dataset);
+                GameBatch right = new GameBatch(mid, to, scores, lines, pieces, dataset);
+                invokeAll(left, right);
+                return left.join().merge(right.join());
+            }
+            // 叶子任务：用当前工作线程的玩家实例，不为每个任务重新分配搜索缓冲区和置换表
+            HeadlessPlayer player = players.get();
+            GameStats stats = new GameStats();
+            for (int i = from; i < to; i++) {
+                GameEngine engine = playGame(player, seedFor(baseSeed, i), maxPieces, dataset);
+                scores[i] = engine.getScore();
+                lines[i] = engine.getLinesCleared();
+                pieces[i] = engine.getPiecesPlaced();
+                stats.merge(engine.getStats());
+            }
+            batchListener.accept(player);
+            return stats;
+        }
+    }
+
+    // ======== 汇总结果 ========
+    public static class Report {
+        private final int games;
+        private final long elapsedNanos;
+        private final long totalPieces;
+        private final Distribution score;
+        private final Distribution lines;
+        private final Distribution pieces;
+        private final GameStats stats;
+
+        Report(int games, long elapsedNanos, int[] scores, int[] lines, int[] pieces, GameStats stats) {
+            this.games = games;
+            this.elapsedNanos = elapsedNanos;
+            long total = 0;
+            for (int p : pieces) {
+                total += p;
+            }
+            this.totalPieces = total;
+            this.score = new Distribution(scores);
+            this.lines = new Distribution(lines);
+            this.pieces = new Distribution(pieces);
+            this.stats = stats;
+        }
+
+        public double getGamesPerSecond() {
+            return games / (elapsedNanos / 1e9);
+        }
+
+        public double getPiecesPerSecond() {
+            return totalPieces / (elapsedNanos / 1e9);
+        }
+
+        public Distribution getScore() {
+            return score;
+        }
+
+        public Distribution getLines() {
+            return lines;
+        }
+
+        // 存活长度（每局放下的方块数）
+        public Distribution getPieces() {
+            return pieces;
+        }
+
+        // 所有对局合计的消除统计
+        public GameStats getStats() {
+            return stats;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("games=%d time=%.2fs games/s=%.1f pieces/s=%.0f%n"
+                            + "  score  %s%n  lines  %s%n  pieces %s%n  clears %s",
+                    games, elapsedNanos / 1e9, getGamesPerSecond(), getPiecesPerSecond(),
+                    score, lines, pieces, stats);
+        }
+    }
+
+    public static class Distribution {
+        private final double mean;
+        private final int p50;
+        private final int p99;
+        private final int max;
+
+        Distribution(int[] values) {
+            int[] sorted = values.clone();
+            Arrays.sort(sorted);
+            long sum = 0;
+            for (int v : sorted) {
+                sum += v;
+            }
+            this.mean = sorted.length == 0 ? 0 : (double) sum / sorted.length;
+            this.p50 = percentile(sorted, 0.50);
+            this.p99 = percentile(sorted, 0.99);
+            this.max = sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+
+        private static int percentile(int[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public int getP50() {
+            return p50;
+        }
+
+        public int getP99() {
+            return p99;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mean=%.1f p50=%d p99=%d max=%d", mean, p50, p99, max);
+        }
+    }
+
+    // 用法: SimulationRunner [games] [threads] [seed] [maxPieces] [depth]
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+        int maxPieces = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        // 每个工作线程创建一个自己的搜索实例（含自己的网格池、缓冲区和置换表）
+        EvaluatorWeights weights = EvaluatorWeights.loadDefault();
+        SimulationRunner runner = new SimulationRunner(games, seed, maxPieces, threads,
+                () -> new LookaheadSearch(new LinearEvaluator(weights), depth,
+                        LookaheadSearch.DEFAULT_BEAM_WIDTH, LookaheadSearch.DEFAULT_BUDGET_NANOS));
+        // 每步在时间预算内完整算到了多深：叶子任务结束时把各线程搜索实例的计数加进来，不保留搜索实例
+        LongAdder[] depthCounts = new LongAdder[depth + 1];
+        for (int i = 0; i < depthCounts.length; i++) {
+            depthCounts[i] = new LongAdder();
+        }
+        runner.setBatchListener(player -> ((LookaheadSearch) player).drainDepthCounts(depthCounts));
+        System.out.println("threads=" + threads);
+        System.out.println(runner.run());
+        System.out.println("  " + LookaheadSearch.depthReport(depthCounts));
+    }
+}
@@ -0,0 +1,76 @@
+package tetris;
+
+// 新方块出场时交给 AI 线程的不可变快照：局面（BoardSnapshot）、当前方块、预览队列和暂存槽
+// 在引擎线程里创建，之后只读，可以安全地跨线程传递
+public final class SpawnEvent {
+
+    private final int pieceId;
+    private final ShapeType type;
+    private final int rotation;
+    private final int x;
+    private final int y;
+    private final BoardSnapshot board;
+    private final ShapeType[] preview;
+    private final ShapeType holdPiece;
+    private final boolean canHold;
+    private final long spawnNanos;          // 出场时刻（System.nanoTime()）
+    private final long dropIntervalNanos;   // 出场时的下落速度
+
+    public SpawnEvent(GameEngine engine) {
+        Tetromino tetromino = engine.getCurrentTetromino();
+        this.pieceId = tetromino.getId();
+        this.type = tetromino.getType();
+        this.rotation = tetromino.getRotation();
+        this.x = tetromino.getX();
+        this.y = tetromino.getY();
+        // 局面直接引用引擎发布的不可变快照，不再逐行复制
+        this.board = engine.getSnapshot();
+        this.preview = new ShapeType[engine.getPreviewLength()];
+        for (int i = 0; i < preview.length; i++) {
+            preview[i] = engine.getPreview(i);
+        }
+        this.holdPiece = engine.getHoldPiece();
+        this.canHold = engine.canHold();
+        this.spawnNanos = System.nanoTime();
+        this.dropIntervalNanos = engine.getDropIntervalNanos();
+    }
+
+    // 把局面载入到调用方自己的网格里
+    public void loadInto(TetrisGrid grid) {
+        board.loadInto(grid);
+    }
+
+    // 在这个快照上搜索最佳落点，deadline 为 System.nanoTime() 的绝对时间
+    public Placement search(LookaheadSearch search, TetrisGrid scratch, long deadline) {
+        loadInto(scratch);
+        return search.findBest(scratch, type, rotation, x, y, preview, preview.length, holdPiece, canHold, deadline);
+    }
+
+    public long getSpawnNanos() {
+        return spawnNanos;
+    }
+
+    public long getDropIntervalNanos() {
+        return dropIntervalNanos;
+    }
+
+    public int getPieceId() {
+        return pieceId;
+    }
+
+    public ShapeType getType() {
+        return type;
+    }
+
+    public BoardSnapshot getBoard() {
+        return board;
+    }
+
+    public int getRows() {
+        return board.getRows();
+    }
+
+    public int getCols() {
+        return board.getCols();
+    }
+}
@@ -0,0 +1,7 @@
+package tetris;
+
+// 新方块出场时的回调，在驱动引擎的线程里同步调用，实现必须很快返回
+public interface SpawnListener {
+
+    void onSpawn(GameEngine engine);
+}
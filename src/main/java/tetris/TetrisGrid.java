@@ -1,92 +1,254 @@
 package tetris;
 
+import java.util.Arrays;
+
 public class TetrisGrid {
 
-    private int[][] grid; // 网格数组 (0 表示空，1 表示已占用)
-    private int rows;
-    private int cols;
+    // 位棋盘：每行一个 int 掩码，第 c 位表示第 c 列是否被占用
+    private final int[] rowMasks;
+    private final int fullRowMask; // 满行掩码 (低 cols 位全为 1)
+    private final int rows;
+    private final int cols;
+    // 每列的高度（最高的已占用格子到底部的距离，空列为 0），锁定时增量更新，消行后重算
+    private final int[] columnHeights;
+    // Zobrist 哈希：所有行的 Zobrist.rowKey 异或，锁定时增量更新，消行后重算
+    private long hash;
+
+    // 快照：上一次发布的不可变版本，以及之后被改动过的行（第 r 位 = 第 r 行，超过 64 行时整体视为改动）
+    private BoardSnapshot snapshot;
+    private long version;
+    private long dirtyRows = -1L;
+
+    // 兼容视图：渲染器与旧版 AI 仍然按 int[][] 读取 (0 表示空，1 表示已占用)
+    // 只有在第一次调用 getGrid() 后才创建并同步维护
+    private int[][] grid;
 
     // 构造函数：初始化网格大小
     public TetrisGrid(int rows, int cols) {
+        if (cols > Integer.SIZE - 1) {
+            throw new IllegalArgumentException("cols must be < 32, got " + cols);
+        }
         this.rows = rows;
         this.cols = cols;
-        grid = new int[rows][cols]; // 创建网格
+        this.rowMasks = new int[rows];
+        this.columnHeights = new int[cols];
+        this.fullRowMask = (1 << cols) - 1;
     }
 
-    // 检查是否越界或重叠
+    // 检查是否越界或重叠：每行一次移位 + 与运算
+    // 引擎移动当前方块用这个入口，指标打开时计时；搜索直接用下面的掩码版本，不计时
     public boolean isValidMove(Tetromino tetromino, int newX, int newY) {
-        int[][] shape = tetromino.getShapeMatrix();
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) { // 检查方块部分
-                    int x = newX + col;
-                    int y = newY + row;
-                    // 边界检查
-                    if (x < 0 || x >= cols || y < 0 || y >= rows) {
-                        return false; // 超出边界
-                    }
-                    // 重叠检查
-                    if (grid[y][x] == 1) {
-                        return false; // 与其他方块重叠
-                    }
-                }
+        if (Metrics.ENABLED) {
+            long start = System.nanoTime();
+            boolean valid = isValidMove(tetromino.getRowMasks(), tetromino.getWidth(), newX, newY);
+            Metrics.IS_VALID_MOVE.record(System.nanoTime() - start);
+            return valid;
+        }
+        return isValidMove(tetromino.getRowMasks(), tetromino.getWidth(), newX, newY);
+    }
+
+    // shapeMasks 为方块每行的掩码（紧凑包围盒，第 c 位对应形状第 c 列）
+    public boolean isValidMove(int[] shapeMasks, int shapeWidth, int newX, int newY) {
+        // 边界检查：形状包围盒是紧凑的，所以只需检查包围盒
+        if (newX < 0 || newX + shapeWidth > cols || newY < 0 || newY + shapeMasks.length > rows) {
+            return false;
+        }
+        // 重叠检查
+        for (int r = 0; r < shapeMasks.length; r++) {
+            if ((rowMasks[newY + r] & (shapeMasks[r] << newX)) != 0) {
+                return false;
             }
         }
-        return true; // 有效位置
+        return true;
     }
 
-    // 锁定方块到网格中
+    // 锁定方块到网格中（引擎的入口，指标打开时计时）
     public void lockTetromino(Tetromino tetromino) {
-        int[][] shape = tetromino.getShapeMatrix();
-        int x = tetromino.getX();
-        int y = tetromino.getY();
-
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) {
-                    grid[y + row][x + col] = 1; // 标记位置为已占用
+        if (Metrics.ENABLED) {
+            long start = System.nanoTime();
+            lock(tetromino.getRowMasks(), tetromino.getX(), tetromino.getY());
+            Metrics.LOCK.record(System.nanoTime() - start);
+            return;
+        }
+        lock(tetromino.getRowMasks(), tetromino.getX(), tetromino.getY());
+    }
+
+    public void lock(int[] shapeMasks, int x, int y) {
+        for (int r = 0; r < shapeMasks.length; r++) {
+            int placed = shapeMasks[r] << x;
+            int row = y + r;
+            markDirty(row);
+            hash ^= Zobrist.rowKey(row, rowMasks[row]);
+            rowMasks[row] |= placed;
+            hash ^= Zobrist.rowKey(row, rowMasks[row]);
+            int height = rows - (y + r);
+            while (placed != 0) {
+                int col = Integer.numberOfTrailingZeros(placed);
+                if (columnHeights[col] < height) {
+                    columnHeights[col] = height;
                 }
+                placed &= placed - 1;
+            }
+            if (grid != null) {
+                syncViewRow(y + r);
             }
         }
     }
 
-    // 检查并消除满行
+    // 检查并消除满行：满行判断是一次比较，消行是一次 System.arraycopy
     public int clearFullLines() {
+        if (Metrics.ENABLED) {
+            long start = System.nanoTime();
+            int cleared = clearRows();
+            Metrics.CLEAR_LINES.record(System.nanoTime() - start);
+            return cleared;
+        }
+        return clearRows();
+    }
+
+    // 不计时的版本：搜索里每个候选落点都要消一次行，计时的开销比消行本身还大
+    int clearRows() {
         int clearedLines = 0;
 
         for (int row = 0; row < rows; row++) {
-            boolean isFull = true;
-
-            // 检查当前行是否已满
-            for (int col = 0; col < cols; col++) {
-                if (grid[row][col] == 0) {
-                    isFull = false;
-                    break;
-                }
-            }
-            if (isFull) {
-                // 消除满行，向下移动其他行
-                for (int r = row; r > 0; r--) {
-                    grid[r] = grid[r - 1].clone();
-                }
+            if (rowMasks[row] == fullRowMask) {
+                // 第 0 行到当前行的内容都变了
+                dirtyRows |= row >= Long.SIZE - 1 ? -1L : (1L << (row + 1)) - 1;
+                // 消除满行，把上面的行整体下移一行
+                System.arraycopy(rowMasks, 0, rowMasks, 1, row);
                 // 清空顶部行
-                grid[0] = new int[cols];
+                rowMasks[0] = 0;
+                if (grid != null) {
+                    // 兼容视图同样只移动行引用，复用被消除行的数组作为新的顶部行
+                    int[] recycled = grid[row];
+                    System.arraycopy(grid, 0, grid, 1, row);
+                    Arrays.fill(recycled, 0);
+                    grid[0] = recycled;
+                }
                 clearedLines++;
             }
         }
+        if (clearedLines > 0) {
+            recomputeColumnHeights();
+            recomputeHash();
+        }
         return clearedLines; // 返回消除的行数
     }
 
-    // 获取网格状态
+    // 获取网格状态（兼容视图，与位棋盘保持同步）
     public int[][] getGrid() {
+        if (grid == null) {
+            grid = new int[rows][cols];
+            for (int row = 0; row < rows; row++) {
+                syncViewRow(row);
+            }
+        }
         return grid;
     }
 
-    private void printMove(int[][] currentMatrix) {
-        for (int i = 0; i<currentMatrix.length; i++) {
-            for (int j = 0; j < currentMatrix[0].length; j++)
-                System.out.print(currentMatrix[i][j] + " ");
-            System.out.println();
+    // 从另一块同尺寸的网格复制状态（AI 搜索/基准测试用，不分配内存）
+    public void copyFrom(TetrisGrid other) {
+        if (other.rows != rows || other.cols != cols) {
+            throw new IllegalArgumentException("grid size mismatch");
+        }
+        System.arraycopy(other.rowMasks, 0, rowMasks, 0, rows);
+        System.arraycopy(other.columnHeights, 0, columnHeights, 0, cols);
+        hash = other.hash;
+        dirtyRows = -1L;
+        if (grid != null) {
+            for (int row = 0; row < rows; row++) {
+                syncViewRow(row);
+            }
+        }
+    }
+
+    // 直接载入每行掩码，例如回放或基准测试中记录下来的局面
+    public void setRowMasks(int[] masks) {
+        if (masks.length != rows) {
+            throw new IllegalArgumentException("expected " + rows + " rows, got " + masks.length);
+        }
+        System.arraycopy(masks, 0, rowMasks, 0, rows);
+        recomputeColumnHeights();
+        recomputeHash();
+        dirtyRows = -1L;
+        if (grid != null) {
+            for (int row = 0; row < rows; row++) {
+                syncViewRow(row);
+            }
+        }
+    }
+
+    // 发布当前局面的不可变快照；自上次发布以来没有改动时返回同一个对象
+    // 只有改动过的行会分配新的格子数组，其余行和上一个版本共享
+    public BoardSnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = BoardSnapshot.of(version++, this);
+        } else if (dirtyRows != 0) {
+            snapshot = BoardSnapshot.next(snapshot, version++, this, dirtyRows);
+        }
+        dirtyRows = 0;
+        return snapshot;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public int getColumnHeight(int col) {
+        return columnHeights[col];
+    }
+
+    public int getRowMask(int row) {
+        return rowMasks[row];
+    }
+
+    public int getFullRowMask() {
+        return fullRowMask;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public boolean isOccupied(int row, int col) {
+        return (rowMasks[row] & (1 << col)) != 0;
+    }
+
+    // 自上而下扫描行掩码，每列第一次出现的格子就是该列的高度
+    private void recomputeColumnHeights() {
+        Arrays.fill(columnHeights, 0);
+        int seen = 0;
+        for (int row = 0; row < rows && seen != fullRowMask; row++) {
+            int fresh = rowMasks[row] & ~seen;
+            seen |= fresh;
+            while (fresh != 0) {
+                columnHeights[Integer.numberOfTrailingZeros(fresh)] = rows - row;
+                fresh &= fresh - 1;
+            }
+        }
+    }
+
+    private void markDirty(int row) {
+        dirtyRows |= row >= Long.SIZE ? -1L : 1L << row;
+    }
+
+    private void recomputeHash() {
+        long h = 0L;
+        for (int row = 0; row < rows; row++) {
+            h ^= Zobrist.rowKey(row, rowMasks[row]);
+        }
+        hash = h;
+    }
+
+    private void syncViewRow(int row) {
+        int mask = rowMasks[row];
+        int[] line = grid[row];
+        for (int col = 0; col < cols; col++) {
+            line[col] = (mask >>> col) & 1;
         }
     }
 }
@@ -1,13 +1,10 @@
 package tetris;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Label;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.BorderPane;
@@ -16,52 +13,88 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
-import javafx.util.Duration;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.file.Path;
 
 public class TetrisMain extends Application {
 
+    // 游戏事件走平台日志（默认是 java.util.logging），不直接打到标准输出
+    private static final Logger LOG = System.getLogger(TetrisMain.class.getName());
+
     // 网格大小
     public static final int COLS = 10;
     public static final int ROWS = 20;
     public static final int BLOCK_SIZE = 30;
 
-    // 画布与图形上下文
-    private Canvas canvas;
-    private static GraphicsContext gc;
+    // 棋盘绘制（静态网格层 + 增量重画的格子层）；按显示器刷新率每帧最多画一次
+    private BoardRenderer boardRenderer;
+    private AnimationTimer frameTimer;
+    private boolean needsRender = true;
+    private int shownScore = -1;
+    private int shownPieceId = -1;     // 预览和暂存只在换方块时变化
+
+    // 每种方块的颜色（只属于视图，引擎不依赖 JavaFX）
+    private static final Color[] COLORS = {
+            Color.CYAN, Color.YELLOW, Color.PURPLE,
+            Color.GREEN, Color.RED, Color.ORANGE, Color.BLUE
+    };
 
-    // 游戏元素
-    static TetrisGrid grid;
-    public static Tetromino currentTetromino;
+    // 游戏引擎：所有规则都在引擎里，这里只负责驱动和绘制
+    private GameEngine engine;
 
     // 输入处理
     private InputHandler inputHandler;
     private boolean isPaused = false; // 新增：记录游戏是否处于暂停状态
 
-    // 分数与计分显示
-    private int score = 0;
+    // 计分显示
     private Label scoreLabel;
-
-    // 计时器
+    private Label previewLabel;   // 预览队列 + 暂存槽
+
+    // 模拟时钟：游戏按固定步长推进，和画面刷新解耦；显示的时间是模拟时间
+    // 倍速用 +/- 调，最后一档不限速
+    private static final double[] SPEEDS = {1, 2, 5, 10, 100, 1000, Double.POSITIVE_INFINITY};
+    private final SimulationClock clock = new SimulationClock();
+    private int speedIndex = 0;
+    private long nextDropNanos;      // 回放：下一次放方块的模拟时间
     private boolean isGameOver = false;
-    private int elapsedTime = 0;
     private Label timerLabel;
-    private Timeline dropTimeline;   // 控制方块自动下落
-    private Timeline timerTimeline;  // 控制游戏时间
+    private String shownTime = "";
 
     // AI 线程
     private Thread aiThread;
     private AIControllerV1 aiControllerV1;
 
+    // 回放：-Dtetris.replayDir=<目录> 时记录每一局；启动参数 --replay=<文件> 时播放回放而不是开新局
+    private static final String REPLAY_DIR = System.getProperty("tetris.replayDir");
+
+    // 规则参数：-Dtetris.level=<起始等级> -Dtetris.lockDelay=<毫秒> -Dtetris.lockResets=<次数>
+    private static final String START_LEVEL = System.getProperty("tetris.level");
+    private static final String LOCK_DELAY = System.getProperty("tetris.lockDelay");
+    private static final String LOCK_RESETS = System.getProperty("tetris.lockResets");
+    private ReplayRecorder replayRecorder;
+    private ReplayPlayer replayPlayer;
+
+    // 新局的规则：没给的属性用默认值；回放按文件头里记录的规则，不看这些属性
+    private static GameRules rulesFromProperties() {
+        GameRules defaults = GameRules.DEFAULT;
+        return new GameRules(
+                START_LEVEL != null ? Integer.parseInt(START_LEVEL) : defaults.getStartLevel(),
+                LOCK_DELAY != null ? Long.parseLong(LOCK_DELAY) * 1_000_000L : defaults.getLockDelayNanos(),
+                LOCK_RESETS != null ? Integer.parseInt(LOCK_RESETS) : defaults.getMaxLockResets());
+    }
+
     @Override
     public void start(Stage primaryStage) {
         // 1. 初始化画布
-        canvas = new Canvas(COLS * BLOCK_SIZE, ROWS * BLOCK_SIZE);
-        gc = canvas.getGraphicsContext2D();
+        boardRenderer = new BoardRenderer(ROWS, COLS, BLOCK_SIZE, COLORS);
 
         // 2. 初始化顶部布局（分数 + 时间）
         scoreLabel = createLabel("Score: 0");
         timerLabel = createLabel("Time: 0s");
-        HBox topBox = new HBox(40, scoreLabel, timerLabel);
+        previewLabel = createLabel("");
+        HBox topBox = new HBox(40, scoreLabel, timerLabel, previewLabel);
         topBox.setAlignment(Pos.CENTER);
         topBox.setPadding(new Insets(10));
         topBox.setStyle("-fx-background-color: #333333;");
@@ -69,43 +102,70 @@ public class TetrisMain extends Application {
         // 3. 布局根节点
         BorderPane root = new BorderPane();
         root.setTop(topBox);
-        root.setCenter(canvas);
+        root.setCenter(boardRenderer.getNode());
 
         Scene scene = new Scene(root, COLS * BLOCK_SIZE + 500, ROWS * BLOCK_SIZE + 200);
-        // 绑定按键
-        inputHandler = new InputHandler();
+        // 绑定按键（引擎创建之后才有输入队列）
         scene.setOnKeyPressed(this::handleKeyPress);
-        scene.setOnKeyReleased(inputHandler::handleKeyReleased);
+        scene.setOnKeyReleased(e -> {
+            if (inputHandler != null) inputHandler.handleKeyReleased(e);
+        });
 
         // 4. 初始化舞台
         primaryStage.setTitle("Tetris Game");
         primaryStage.setScene(scene);
         primaryStage.show();
 
-        // 5. 创建网格和初始方块
-        grid = new TetrisGrid(ROWS, COLS);
-        currentTetromino = new Tetromino(ShapeType.T);
-
-        // 6. 启动两个 Timeline
-        // 6.1 方块每 0.5 秒自动下落
-        dropTimeline = new Timeline(new KeyFrame(Duration.seconds(0.5), e -> autoDrop()));
-        dropTimeline.setCycleCount(Timeline.INDEFINITE);
-        dropTimeline.play();
-
-        // 6.2 游戏时间每秒加 1
-        timerTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-            if (!isGameOver) {
-                elapsedTime++;
-                timerLabel.setText("Time: " + elapsedTime + "s");
+        // 5. 创建引擎（网格和初始方块）
+        String replayFile = getParameters().getNamed().get("replay");
+        if (replayFile != null) {
+            replayPlayer = new ReplayPlayer(Path.of(replayFile));
+            engine = replayPlayer.getEngine();
+            if (START_LEVEL != null || LOCK_DELAY != null || LOCK_RESETS != null) {
+                LOG.log(Level.WARNING, "Replaying with the recorded rules ({0}), ignoring -Dtetris.level, "
+                        + "-Dtetris.lockDelay and -Dtetris.lockResets", engine.getRules());
+            }
+            engine.setPublishSnapshots(true);
+        } else {
+            long seed = System.nanoTime();
+            engine = new GameEngine(ROWS, COLS, PieceGenerator.Kind.BAG.create(seed), GameEngine.DEFAULT_PREVIEW,
+                    rulesFromProperties());
+            if (REPLAY_DIR != null) {
+                replayRecorder = new ReplayRecorder(Path.of(REPLAY_DIR, "tetris-" + Long.toHexString(seed) + ".replay"),
+                        PieceGenerator.Kind.BAG, seed, ROWS, COLS, GameEngine.DEFAULT_PREVIEW, engine.getRules());
+                replayRecorder.attach(engine);
+                // 没玩完就关窗口也要把缓冲区写出去
+                primaryStage.setOnCloseRequest(e -> closeRecorder());
+            }
+        }
+        inputHandler = new InputHandler(engine.getHumanInputs());
+
+        // 6. 每帧先按模拟时钟补齐欠下的模拟步（输入队列、按住的自动重复、自动下落），再画最新的状态，
+        // 模拟再快也不会超过刷新率
+        nextDropNanos = engine.getDropIntervalNanos();
+        frameTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (!isPaused && !isGameOver && clock.advance(now, TetrisMain.this::simulateTick, TetrisMain.this::isWaiting)) {
+                    refreshState();
+                }
+                renderFrame();
             }
-        }));
-        timerTimeline.setCycleCount(Timeline.INDEFINITE);
-        timerTimeline.play();
+        };
+        frameTimer.start();
 
-        // 7. 启动 AI（可选）
-        aiControllerV1 = new AIControllerV1();
-        aiThread = new Thread(aiControllerV1);
+        // 7. 启动 AI（可选）；回放时不需要
+        if (replayPlayer != null) {
+            updateDisplay();
+            return;
+        }
+        aiControllerV1 = new AIControllerV1(engine);
+        engine.setSpawnListener(aiControllerV1);
+        aiThread = new Thread(aiControllerV1, "tetris-ai");
+        aiThread.setDaemon(true);
         aiThread.start();
+        // 第一个方块在注册监听之前就已经出场，手动交给 AI
+        aiControllerV1.onSpawn(engine);
 
         // 8. 初次绘制
         updateDisplay();
@@ -119,161 +179,154 @@ public class TetrisMain extends Application {
             case P:
                 togglePause();
                 return; // 这里 return 是为了防止暂停时还继续响应其他按键
+            case N:
+                // 回放暂停时单步：放下一个方块
+                if (replayPlayer != null && isPaused) {
+                    replayStep();
+                }
+                return;
+            case EQUALS:
+            case PLUS:
+            case ADD:
+                changeSpeed(1);
+                return;
+            case MINUS:
+            case SUBTRACT:
+                changeSpeed(-1);
+                return;
             default:
                 break;
         }
-        if (isPaused || isGameOver) return;
+        if (isPaused || isGameOver || replayPlayer != null) return;
 
+        // 只放进引擎的输入队列，下一帧 tick 时执行
         inputHandler.handleKeyPressed(event);
-        int newX = currentTetromino.getX();
-        int newY = currentTetromino.getY();
-
-        // 根据输入决定新位置或旋转
-        if (inputHandler.isMoveLeft()) {
-            newX--;
-        } else if (inputHandler.isMoveRight()) {
-            newX++;
-        } else if (inputHandler.isDrop()) {
-            newY++;
-        } else if (inputHandler.isRotate()) {
-            currentTetromino.rotate();
-            if (!grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY())) {
-                // 撤销旋转
-                currentTetromino.rotate();
-                currentTetromino.rotate();
-                currentTetromino.rotate();
-            }
-        }
+    }
 
-        // 检查是否能移动到 (newX, newY)
-        if (grid.isValidMove(currentTetromino, newX, newY)) {
-            currentTetromino.setPosition(newX, newY);
-        } else if (inputHandler.isDrop()) {
-            // 如果无法下落，锁定
-            lockAndSpawnNew();
+    // ======== 一个模拟步 ========
+    // 引擎执行输入队列、重力和锁定延迟（回放时每个下落间隔放一个方块），返回状态是否改变
+    private boolean simulateTick(long simNanos) {
+        if (isGameOver) return false;
+        if (replayPlayer == null) {
+            return engine.tick(simNanos);
         }
-
-        updateDisplay();
+        if (simNanos - nextDropNanos >= 0) {
+            nextDropNanos += engine.getDropIntervalNanos();
+            replayStep();
+            return true;
+        }
+        return false;
     }
 
-    // ======== 自动下落 ========
-    private void autoDrop() {
-        if (isGameOver) return;
+    // 模拟时间要不要停住：快进时 AI 还在想当前方块就等它，否则方块会在 AI 思考期间自己落下去
+    // 1 倍速时不等，AI 要和真实的重力、锁定延迟赛跑
+    private boolean isWaiting() {
+        return isGameOver || engine.isGameOver()
+                || (clock.getSpeed() > 1 && aiControllerV1 != null && aiControllerV1.isDeciding());
+    }
 
-        int newY = currentTetromino.getY() + 1;
-        if (grid.isValidMove(currentTetromino, currentTetromino.getX(), newY)) {
-            currentTetromino.moveDown();
-        } else {
-            lockAndSpawnNew();
+    private void changeSpeed(int delta) {
+        speedIndex = Math.max(0, Math.min(SPEEDS.length - 1, speedIndex + delta));
+        clock.setSpeed(SPEEDS[speedIndex]);
+        if (aiControllerV1 != null) {
+            aiControllerV1.setTimeScale(SPEEDS[speedIndex]);
         }
-
         updateDisplay();
     }
 
-    // ======== 锁定当前方块并生成新方块 ========
-    private void lockAndSpawnNew() {
-        grid.lockTetromino(currentTetromino);
-        clearLines();
-        currentTetromino = new Tetromino(ShapeType.values()[(int) (Math.random() * 7)]);
-        // 检查是否游戏结束
-        checkGameOver();
+    private void replayStep() {
+        if (isGameOver) return;
+        if (!replayPlayer.step()) {
+            LOG.log(Level.INFO, "Replay finished");
+            endGame();
+            return;
+        }
+        refreshState();
     }
 
-    // ======== 检查是否游戏结束 ========
-    private void checkGameOver() {
-        if (!grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY())) {
+    // ======== 检查游戏结束并请求重绘 ========
+    private void refreshState() {
+        if (engine.isGameOver() && !isGameOver) {
             endGame();
         }
+        updateDisplay();
     }
 
-    // ======== 消除行并更新分数 ========
-    private void clearLines() {
-        int clearedLines = grid.clearFullLines();
-        if (clearedLines > 0) {
-            score += clearedLines * 100;
-            scoreLabel.setText("Score: " + score);
+    private String previewText() {
+        StringBuilder text = new StringBuilder("Next:");
+        for (int i = 0; i < engine.getPreviewLength(); i++) {
+            text.append(' ').append(engine.getPreview(i));
         }
+        ShapeType hold = engine.getHoldPiece();
+        text.append("  Hold: ").append(hold == null ? "-" : hold.name());
+        return text.toString();
     }
 
     // ======== 结束游戏 ========
     private void endGame() {
-        System.out.println("Game Over!");
+        LOG.log(Level.INFO, "Game over, final score {0}", engine.getScore());
         isGameOver = true;
-        dropTimeline.stop();
-        timerTimeline.stop();
-        scoreLabel.setText("Game Over! Final Score: " + score);
-        aiControllerV1.stop();
+        scoreLabel.setText("Game Over! Final Score: " + engine.getScore());
+        updateDisplay();
+        if (aiControllerV1 != null) {
+            LOG.log(Level.INFO, "AI {0}", aiControllerV1.getSearch().depthReport());
+            aiControllerV1.stop();
+        }
+        closeRecorder();
+    }
+
+    private void closeRecorder() {
+        if (replayRecorder != null) {
+            replayRecorder.close();
+            replayRecorder = null;
+        }
     }
 
     // ======== 更新画布显示 ========
+    // 游戏状态变化时只做标记，真正的绘制由 frameTimer 在下一帧做，一帧最多画一次
     private void updateDisplay() {
-        // 清空画布
-        gc.clearRect(0, 0, COLS * BLOCK_SIZE, ROWS * BLOCK_SIZE);
-        // 先画网格
-        drawGrid(gc);
-        // 再画已锁定的方块
-        drawLockedBlocks();
-        // 最后画当前方块
-        drawTetromino(gc, currentTetromino);
+        needsRender = true;
     }
 
-    // ======== 绘制网格 ========
-    public static void drawGrid(GraphicsContext gc) {
-        gc.setStroke(Color.DARKGRAY);
-        for (int x = 0; x <= COLS * BLOCK_SIZE; x += BLOCK_SIZE) {
-            gc.strokeLine(x, 0, x, ROWS * BLOCK_SIZE);
-        }
-        for (int y = 0; y <= ROWS * BLOCK_SIZE; y += BLOCK_SIZE) {
-            gc.strokeLine(0, y, COLS * BLOCK_SIZE, y);
+    private void renderFrame() {
+        if (!needsRender) return;
+        needsRender = false;
+        String time = timeText();
+        if (!time.equals(shownTime)) {
+            shownTime = time;
+            timerLabel.setText(time);
         }
-    }
-
-    // ======== 绘制锁定的方块 ========
-    public static void drawLockedBlocks() {
-        int[][] gridArray = grid.getGrid();
-        for (int row = 0; row < ROWS; row++) {
-            for (int col = 0; col < COLS; col++) {
-                if (gridArray[row][col] == 1) {
-                    gc.setFill(Color.DARKGRAY);
-                    gc.fillRect(col * BLOCK_SIZE, row * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-                    gc.setStroke(Color.BLACK);
-                    gc.strokeRect(col * BLOCK_SIZE, row * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-                }
+        if (!isGameOver) {
+            int score = engine.getScore();
+            if (score != shownScore) {
+                shownScore = score;
+                scoreLabel.setText("Score: " + score + "  Level: " + engine.getLevel());
+            }
+            int pieceId = engine.getCurrentTetromino().getId();
+            if (pieceId != shownPieceId) {
+                shownPieceId = pieceId;
+                previewLabel.setText(previewText());
             }
         }
+        // 读引擎发布的不可变快照，不会读到消行到一半的局面
+        boardRenderer.render(engine.getSnapshot(), engine.getCurrentTetromino());
     }
 
-    // ======== 绘制当前下落方块 ========
-    public static void drawTetromino(GraphicsContext gc, Tetromino tetromino) {
-        int[][] shape = tetromino.getShapeMatrix();
-        Color color = tetromino.getColor();
-        int x = tetromino.getX();
-        int y = tetromino.getY();
-
-        gc.setFill(color);
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) {
-                    gc.fillRect((x + col) * BLOCK_SIZE,
-                            (y + row) * BLOCK_SIZE,
-                            BLOCK_SIZE,
-                            BLOCK_SIZE);
-                    gc.setStroke(Color.BLACK);
-                    gc.strokeRect((x + col) * BLOCK_SIZE,
-                            (y + row) * BLOCK_SIZE,
-                            BLOCK_SIZE,
-                            BLOCK_SIZE);
-                }
-            }
+    // 模拟时间（整秒）和倍速
+    private String timeText() {
+        String text = "Time: " + clock.getSimulatedNanos() / 1_000_000_000L + "s";
+        if (clock.isUnlimited()) {
+            return text + "  Speed: max";
         }
+        double speed = clock.getSpeed();
+        return speed == 1 ? text : text + "  Speed: " + (long) speed + "x";
     }
 
     private void togglePause() {
         // 如果当前处于暂停状态，则恢复游戏
         if (isPaused) {
             isPaused = false;
-            dropTimeline.play();
-            timerTimeline.play();
+            clock.resync();
 
             // 如果有 AI 线程，也恢复
             if (aiControllerV1 != null) {
@@ -281,13 +334,12 @@ public class TetrisMain extends Application {
             }
 
             // 如果需要，可以在界面上提醒玩家游戏已继续
-            System.out.println("Game Resumed!");
+            LOG.log(Level.DEBUG, "Game resumed");
 
         } else {
             // 如果当前处于正常状态，则暂停游戏
             isPaused = true;
-            dropTimeline.stop();
-            timerTimeline.stop();
+            inputHandler.reset();
 
             // 如果有 AI 线程，也暂停
             if (aiControllerV1 != null) {
@@ -295,7 +347,7 @@ public class TetrisMain extends Application {
             }
 
             // 如果需要，可以在界面上提醒玩家游戏已暂停
-            System.out.println("Game Paused!");
+            LOG.log(Level.DEBUG, "Game paused");
         }
     }
 
@@ -307,15 +359,6 @@ public class TetrisMain extends Application {
         return label;
     }
 
-    // ======== 对外暴露一些获取方法 (AI 或其他类需要) ========
-    public static Tetromino getCurrentTetromino() {
-        return currentTetromino;
-    }
-
-    public static int[][] getCurrentGrid() {
-        return grid.getGrid();
-    }
-
     public static void main(String[] args) {
         launch(args);
     }
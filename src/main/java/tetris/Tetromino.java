@@ -1,64 +1,68 @@
 package tetris;
 
-import javafx.scene.paint.Color;
-
-import java.util.Arrays;
-
 public class Tetromino {
 
-    private static int idCounter = 0;
-
-    private static final int[][][] SHAPES = {
-            // I
-            {{1, 1, 1, 1}},
-            // O
-            {{1, 1}, {1, 1}},
-            // T
-            {{0, 1, 0}, {1, 1, 1}},
-            // S
-            {{0, 1, 1}, {1, 1, 0}},
-            // Z
-            {{1, 1, 0}, {0, 1, 1}},
-            // L
-            {{1, 0}, {1, 0}, {1, 1}},
-            // J
-            {{0, 1}, {0, 1}, {1, 1}}
-    };
-    // Assign Different Color
-    private static final Color[] COLORS = {
-            Color.CYAN, Color.YELLOW, Color.PURPLE,
-            Color.GREEN, Color.RED, Color.ORANGE, Color.BLUE
-    };
+    // 出生位置
+    public static final int SPAWN_X = 4;
+    public static final int SPAWN_Y = 0;
+
     private int id;
     private ShapeType type;       // 方块类型
-    private int rotation;         // 当前旋转状态
-    private int[][] shapeMatrix;  // 当前形状矩阵
-    private Color color;          // 方块颜色
+    private int rotation;         // 当前旋转状态（RotationTable 中的朝向下标）
+    private Orientation orientation; // 当前朝向（共享的不可变数据）
     private int x,y;              // x 通常代表列坐标（column index），即从左到右的偏移量。y 通常代表行坐标（row index），即从上到下的偏移量。
 
 
-    public Tetromino(ShapeType type) {
+    // id 由创建它的引擎按局分配，不再使用全局静态计数器
+    public Tetromino(ShapeType type, int id) {
         this.type = type;
         this.rotation = 0; // 初始旋转状态
-        this.shapeMatrix = SHAPES[type.ordinal()];
-        this.color = COLORS[type.ordinal()];
-        this.x = 4;
-        this.y = 0;
-        this.id = idCounter++;
+        this.orientation = RotationTable.get(type, 0);
+        this.x = SPAWN_X;
+        this.y = SPAWN_Y;
+        this.id = id;
     }
 
-    public Color getColor() {
-        return color;
+    // 引擎复用同一个对象表示下一个出场的方块，不必每个方块分配一次
+    void respawn(ShapeType type, int id) {
+        this.type = type;
+        this.rotation = 0;
+        this.orientation = RotationTable.get(type, 0);
+        this.x = SPAWN_X;
+        this.y = SPAWN_Y;
+        this.id = id;
     }
 
+    // 返回共享的只读矩阵，调用方不得修改
     public int[][] getShapeMatrix() {
-        return shapeMatrix;
+        return orientation.getMatrix();
     }
 
+    // 兼容旧接口：根据矩阵找到对应的朝向
     public void setShapeMatrix(int[][] finalShape) {
-        int[][] temp = new int[finalShape.length][finalShape[0].length];
-        for (int j = 0; j<temp.length; j++) temp[j] = Arrays.copyOf(finalShape[j],finalShape[j].length);
-        shapeMatrix = temp;
+        int index = RotationTable.indexOf(type, finalShape);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not an orientation of " + type);
+        }
+        setRotation(index);
+    }
+
+    // 每行一个掩码，第 c 位表示形状第 c 列，供位棋盘做移位碰撞检测
+    public int[] getRowMasks() {
+        return orientation.getRowMasks();
+    }
+
+    public Orientation getOrientation() {
+        return orientation;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public void setRotation(int rotation) {
+        this.rotation = rotation;
+        this.orientation = RotationTable.get(type, rotation);
     }
 
     public int getId() {
@@ -70,11 +74,11 @@ public class Tetromino {
     }
 
     public int getHeight() {
-        return shapeMatrix.length;
+        return orientation.getHeight();
     }
 
     public int getWidth() {
-        return shapeMatrix[0].length;
+        return orientation.getWidth();
     }
 
     public int getX() {
@@ -102,16 +106,14 @@ public class Tetromino {
         y++; // 向下移动
     }
 
+    // 顺时针旋转：只是切换朝向下标，不做任何分配
     public void rotate() {
-        int rows = shapeMatrix.length;
-        int cols = shapeMatrix[0].length;
-        int[][] rotated = new int[cols][rows];
-
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                rotated[j][rows - i - 1] = shapeMatrix[i][j];
-            }
-        }
-        shapeMatrix = rotated; // 更新形状矩阵
+        setRotation((rotation + 1) % RotationTable.count(type));
+    }
+
+    // 逆时针旋转（用于撤销一次顺时针旋转）
+    public void rotateBack() {
+        int count = RotationTable.count(type);
+        setRotation((rotation + count - 1) % count);
     }
 }
@@ -0,0 +1,144 @@
+package tetris;
+
+import java.util.Arrays;
+
+// 搜索用的置换表：固定大小、开地址直接映射，全部用原始类型数组存放
+// 键是 Zobrist 哈希（局面 + 剩余方块序列），值是该节点搜出的分数，depth 是节点下面还剩几层
+// 只在一个线程里使用；计数器用来判断表的大小是否合适
+public class TranspositionTable {
+
+    public enum ReplacementPolicy {
+        // 槽位被占用时，只有新条目剩余深度 >= 旧条目时才覆盖（深层结果更贵，值得保留）
+        DEPTH_PREFERRED,
+        // 总是覆盖
+        ALWAYS_REPLACE
+    }
+
+    public static final int DEFAULT_SIZE_BITS = 16;
+
+    private final long[] keys;      // 0 表示空槽
+    private final double[] values;
+    private final byte[] depths;
+    private final int mask;
+    private final ReplacementPolicy policy;
+
+    private long hits;
+    private long misses;
+    private long collisions;   // 探测时槽位被另一个键占用
+    private long stores;
+    private long rejected;     // 深度优先策略下放弃写入的次数
+    private int used;
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_BITS, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    // 表的大小为 2^sizeBits 个条目
+    public TranspositionTable(int sizeBits, ReplacementPolicy policy) {
+        if (sizeBits < 1 || sizeBits > 30) {
+            throw new IllegalArgumentException("sizeBits must be in [1, 30], got " + sizeBits);
+        }
+        int size = 1 << sizeBits;
+        this.keys = new long[size];
+        this.values = new double[size];
+        this.depths = new byte[size];
+        this.mask = size - 1;
+        this.policy = policy;
+    }
+
+    // 查表：命中返回槽位下标（用 getValue 取值），否则返回 -1
+    public int probe(long key, int depth) {
+        key = nonZero(key);
+        int slot = slotOf(key);
+        long stored = keys[slot];
+        if (stored == key && depths[slot] >= depth) {
+            hits++;
+            return slot;
+        }
+        if (stored != 0L && stored != key) {
+            collisions++;
+        }
+        misses++;
+        return -1;
+    }
+
+    public double getValue(int slot) {
+        return values[slot];
+    }
+
+    public void store(long key, int depth, double value) {
+        key = nonZero(key);
+        int slot = slotOf(key);
+        long stored = keys[slot];
+        if (stored == 0L) {
+            used++;
+        } else if (policy == ReplacementPolicy.DEPTH_PREFERRED && stored != key && depths[slot] > depth) {
+            rejected++;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        depths[slot] = (byte) depth;
+        stores++;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        used = 0;
+    }
+
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        collisions = 0;
+        stores = 0;
+        rejected = 0;
+    }
+
+    private int slotOf(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static long nonZero(long key) {
+        return key == 0L ? 1L : key;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public int getUsed() {
+        return used;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getCollisions() {
+        return collisions;
+    }
+
+    public long getStores() {
+        return stores;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public double getHitRate() {
+        long probes = hits + misses;
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d used=%d hits=%d misses=%d hitRate=%.3f collisions=%d stores=%d rejected=%d",
+                keys.length, used, hits, misses, getHitRate(), collisions, stores, rejected);
+    }
+}
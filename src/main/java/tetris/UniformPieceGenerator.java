@@ -0,0 +1,20 @@
+package tetris;
+
+import java.util.SplittableRandom;
+
+// 每个方块独立均匀随机（老版本的规则，可能连续出很多个同样的方块，也可能很久不出某个方块）
+public class UniformPieceGenerator implements PieceGenerator {
+
+    private static final ShapeType[] SHAPES = ShapeType.values();
+
+    private final SplittableRandom random;
+
+    public UniformPieceGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public ShapeType next() {
+        return SHAPES[random.nextInt(SHAPES.length)];
+    }
+}
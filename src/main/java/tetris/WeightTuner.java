@@ -0,0 +1,385 @@
+package tetris;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+// 离线调参：用遗传算法进化 LinearEvaluator 的权重
+// 每个候选的适应度 = 一组固定种子的无界面对局里平均消除的行数（所有候选、所有代都用同一组种子，比较才公平）
+// 对局用和游戏里的 AI 同样配置的前瞻搜索（预览、暂存、beam 宽度），权重是在它实际使用的搜索下评出来的；
+// 搜索深度可以调低换速度。搜索不限时，适应度只取决于权重和种子，和机器快慢、负载无关
+// 一代里所有 (候选, 对局) 一起拆给 ForkJoin 并行跑；每代结束把种群写到检查点文件，中断后从检查点继续
+// 每代都把当前最好的权重写成 AI 启动时读取的 properties 格式（见 EvaluatorWeights）
+// 进度只写日志（DEBUG），命令行的输出由 main 通过 setGenerationListener 自己打印
+public class WeightTuner {
+
+    private static final Logger LOG = System.getLogger(WeightTuner.class.getName());
+
+    // 每代用新个体替换掉的比例，以及锦标赛抽样的比例
+    private static final double REPLACE_FRACTION = 0.3;
+    private static final double TOURNAMENT_FRACTION = 0.1;
+    private static final double MUTATION_RATE = 0.05;
+    private static final double MUTATION_STEP = 0.2;
+
+    // 每个叶子任务最多连续跑多少局
+    private static final int GAMES_PER_TASK = 4;
+    // 评估时的搜索预算：足够让每一层都算完，相当于不限时
+    private static final long SEARCH_BUDGET_NANOS = 3_600_000_000_000L;
+
+    private final int populationSize;
+    private final int games;
+    private final int maxPieces;
+    private final int parallelism;
+    private final int depth;
+    private final long seed;
+    private final Path checkpoint;
+    private final Path output;
+
+    // 每个工作线程一张置换表，换候选时清空（表里的值取决于评估器的权重）
+    private final ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(TranspositionTable::new);
+
+    private List<Candidate> population = new ArrayList<>();
+    private int generation;
+    // 每代评估完、写完检查点之后调用，这时 population 已经按适应度排好序
+    private Consumer<? super WeightTuner> generationListener = tuner -> { };
+
+    // depth 是评估对局的搜索深度，游戏里的 AI 用 LookaheadSearch.DEFAULT_DEPTH
+    public WeightTuner(int populationSize, int games, int maxPieces, int parallelism, int depth, long seed,
+                       Path checkpoint, Path output) {
+        if (populationSize < 2) {
+            throw new IllegalArgumentException("population must have at least 2 candidates, got " + populationSize);
+        }
+        if (depth < 1 || depth > Zobrist.MAX_SEQUENCE + 1) {
+            throw new IllegalArgumentException("depth must be in [1, " + (Zobrist.MAX_SEQUENCE + 1) + "], got "
+                    + depth);
+        }
+        this.populationSize = populationSize;
+        this.games = games;
+        this.maxPieces = maxPieces;
+        this.parallelism = parallelism;
+        this.depth = depth;
+        this.seed = seed;
+        this.checkpoint = checkpoint;
+        this.output = output;
+    }
+
+    public void setGenerationListener(Consumer<? super WeightTuner> generationListener) {
+        this.generationListener = generationListener;
+    }
+
+    // 刚评估完的一代
+    public int getGeneration() {
+        return generation;
+    }
+
+    // 刚评估完的一代的最好、中位适应度和最好的权重，在 generationListener 里调用
+    public String generationReport() {
+        Candidate best = population.get(0);
+        return String.format("generation %d best=%.2f median=%.2f %s", generation, best.fitness,
+                population.get(population.size() / 2).fitness, Arrays.toString(best.weights));
+    }
+
+    // 跑到第 generations 代为止（从检查点恢复时接着已经完成的代数）
+    public Candidate run(int generations) {
+        if (Files.exists(checkpoint)) {
+            loadCheckpoint();
+            LOG.log(Level.DEBUG, "Resumed from {0} at generation {1}", checkpoint, generation);
+            if (generation >= generations) {
+                // 检查点已经跑到要求的代数了，不再繁殖和评估
+                return population.get(0);
+            }
+            breed();
+            generation++;
+        } else {
+            initPopulation();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (true) {
+                evaluate(pool);
+                population.sort(Comparator.comparingDouble((Candidate c) -> c.fitness).reversed());
+                Candidate best = population.get(0);
+                new EvaluatorWeights(best.weights).save(output,
+                        String.format("WeightTuner generation %d, mean lines %.2f over %d games", generation,
+                                best.fitness, games));
+                saveCheckpoint();
+                if (LOG.isLoggable(Level.DEBUG)) {
+                    LOG.log(Level.DEBUG, generationReport());
+                }
+                generationListener.accept(this);
+                if (generation >= generations) {
+                    return best;
+                }
+                breed();
+                generation++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // ======== 种群 ========
+
+    private void initPopulation() {
+        SplittableRandom random = new SplittableRandom(SimulationRunner.seedFor(seed, -1));
+        // 第一个个体是当前打包的默认权重，其余随机
+        population.add(new Candidate(normalize(EvaluatorWeights.loadDefault().toArray())));
+        while (population.size() < populationSize) {
+            double[] weights = new double[Feature.values().length];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = random.nextDouble() * 2 - 1;
+            }
+            population.add(new Candidate(normalize(weights)));
+        }
+        generation = 0;
+    }
+
+    // 锦标赛选出两个父代，按适应度加权平均得到子代，小概率变异，最后替换掉最差的一部分
+    // 每代的随机数只由种子和代数决定，从检查点恢复后结果和不中断时一样
+    private void breed() {
+        SplittableRandom random = new SplittableRandom(SimulationRunner.seedFor(seed, generation));
+        int replace = Math.max(1, (int) (populationSize * REPLACE_FRACTION));
+        int tournament = Math.max(2, (int) (populationSize * TOURNAMENT_FRACTION));
+        List<Candidate> offspring = new ArrayList<>(replace);
+        for (int n = 0; n < replace; n++) {
+            Candidate[] parents = tournament(random, tournament);
+            double total = parents[0].fitness + parents[1].fitness;
+            double[] child = new double[parents[0].weights.length];
+            for (int i = 0; i < child.length; i++) {
+                child[i] = total > 0
+                        ? parents[0].weights[i] * parents[0].fitness + parents[1].weights[i] * parents[1].fitness
+                        : (parents[0].weights[i] + parents[1].weights[i]) / 2;
+            }
+            if (random.nextDouble() < MUTATION_RATE) {
+                int i = random.nextInt(child.length);
+                child[i] += (random.nextDouble() * 2 - 1) * MUTATION_STEP;
+            }
+            offspring.add(new Candidate(normalize(child)));
+        }
+        // population 已按适应度从高到低排好
+        for (int n = 0; n < replace; n++) {
+            population.set(populationSize - 1 - n, offspring.get(n));
+        }
+    }
+
+    // 随机抽 size 个，返回其中最好的两个
+    private Candidate[] tournament(SplittableRandom random, int size) {
+        Candidate first = null;
+        Candidate second = null;
+        for (int n = 0; n < size; n++) {
+            Candidate c = population.get(random.nextInt(population.size()));
+            if (first == null || c.fitness > first.fitness) {
+                second = first;
+                first = c;
+            } else if (c != first && (second == null || c.fitness > second.fitness)) {
+                second = c;
+            }
+        }
+        if (second == null) {
+            second = first;
+        }
+        return new Candidate[] {first, second};
+    }
+
+    // 线性评估只看分数的相对大小，权重整体缩放不改变选择，统一成单位长度
+    private static double[] normalize(double[] weights) {
+        double norm = 0;
+        for (double w : weights) {
+            norm += w * w;
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] /= norm;
+            }
+        }
+        return weights;
+    }
+
+    // ======== 适应度：并行跑所有还没评估过的候选 ========
+
+    private void evaluate(ForkJoinPool pool) {
+        List<Candidate> pending = new ArrayList<>();
+        for (Candidate c : population) {
+            if (Double.isNaN(c.fitness)) {
+                pending.add(c);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        int[][] lines = new int[pending.size()][games];
+        pool.invoke(new EvaluateBatch(pending, lines, 0, pending.size() * games));
+        for (int i = 0; i < pending.size(); i++) {
+            long total = 0;
+            for (int l : lines[i]) {
+                total += l;
+            }
+            pending.get(i).fitness = (double) total / games;
+        }
+    }
+
+    // 任务编号 t 对应第 t / games 个候选的第 t % games 局，结果写进各自的数组槽位
+    private class EvaluateBatch extends RecursiveAction {
+        private final List<Candidate> candidates;
+        private final int[][] lines;
+        private final int from;
+        private final int to;
+
+        EvaluateBatch(List<Candidate> candidates, int[][] lines, int from, int to) {
+            this.candidates = candidates;
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GAMES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EvaluateBatch(candidates, lines, from, mid),
+                        new EvaluateBatch(candidates, lines, mid, to));
+                return;
+            }
+            // 叶子任务：每个候选一个玩家实例，只在当前线程里使用；置换表是线程的，换候选时清空
+            TranspositionTable table = tables.get();
+            LookaheadSearch player = null;
+            int playerCandidate = -1;
+            for (int t = from; t < to; t++) {
+                int candidate = t / games;
+                int game = t % games;
+                if (candidate != playerCandidate) {
+                    table.clear();
+                    player = new LookaheadSearch(new LinearEvaluator(
+                            new EvaluatorWeights(candidates.get(candidate).weights)), depth,
+                            LookaheadSearch.DEFAULT_BEAM_WIDTH, SEARCH_BUDGET_NANOS, table);
+                    playerCandidate = candidate;
+                }
+                GameEngine engine = SimulationRunner.playGame(player, SimulationRunner.seedFor(seed, game), maxPieces);
+                lines[candidate][game] = engine.getLinesCleared();
+            }
+        }
+    }
+
+    // ======== 检查点：文本格式，先写临时文件再原子替换 ========
+    // generation=<n>
+    // <fitness 或 NaN> <w0> <w1> ...
+
+    private void saveCheckpoint() {
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# WeightTuner population, one candidate per line: fitness followed by weights in Feature order");
+            writer.newLine();
+            writer.write("generation=" + generation);
+            writer.newLine();
+            for (Candidate c : population) {
+                StringBuilder line = new StringBuilder(Double.toString(c.fitness));
+                for (double w : c.weights) {
+                    line.append(' ').append(w);
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 检查点里存的是评估完、还没繁殖的种群，恢复后由 run 决定是否繁殖出下一代
+    private void loadCheckpoint() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        population = new ArrayList<>();
+        int saved = -1;
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("generation=")) {
+                saved = Integer.parseInt(line.substring("generation=".length()));
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            if (parts.length != Feature.values().length + 1) {
+                throw new IllegalStateException("bad checkpoint line in " + checkpoint + ": " + line);
+            }
+            double[] weights = new double[Feature.values().length];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = Double.parseDouble(parts[i + 1]);
+            }
+            Candidate c = new Candidate(weights);
+            c.fitness = Double.parseDouble(parts[0]);
+            population.add(c);
+        }
+        if (saved < 0 || population.size() != populationSize) {
+            throw new IllegalStateException("checkpoint " + checkpoint + " does not match: generation=" + saved
+                    + ", population=" + population.size() + ", expected " + populationSize);
+        }
+        population.sort(Comparator.comparingDouble((Candidate c) -> c.fitness).reversed());
+        generation = saved;
+    }
+
+    public static class Candidate {
+        private final double[] weights;
+        private double fitness = Double.NaN;   // NaN 表示还没评估
+
+        Candidate(double[] weights) {
+            this.weights = weights;
+        }
+
+        public EvaluatorWeights getWeights() {
+            return new EvaluatorWeights(weights);
+        }
+
+        public double getFitness() {
+            return fitness;
+        }
+    }
+
+    // 用法: WeightTuner [generations] [population] [games] [maxPieces] [threads] [checkpoint] [output] [seed] [depth]
+    public static void main(String[] args) {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int population = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        int maxPieces = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        Path checkpoint = Path.of(args.length > 5 ? args[5] : "tuner-checkpoint.txt");
+        Path output = Path.of(args.length > 6 ? args[6] : "ai-weights.properties");
+        long seed = args.length > 7 ? Long.parseLong(args[7]) : 0L;
+        int depth = args.length > 8 ? Integer.parseInt(args[8]) : LookaheadSearch.DEFAULT_DEPTH;
+
+        WeightTuner tuner = new WeightTuner(population, games, maxPieces, threads, depth, seed, checkpoint, output);
+        if (Files.exists(checkpoint)) {
+            System.out.println("resuming from " + checkpoint);
+        }
+        tuner.setGenerationListener(t -> System.out.println(t.generationReport()));
+        Candidate best = tuner.run(generations);
+        System.out.println("best weights written to " + output + " (use -D" + EvaluatorWeights.WEIGHTS_PROPERTY
+                + "=" + output + "): " + best.getWeights());
+    }
+}
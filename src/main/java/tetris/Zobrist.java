@@ -0,0 +1,50 @@
+package tetris;
+
+import java.util.SplittableRandom;
+
+// 局面哈希：每一行按 (行号, 行掩码) 取一个 64 位键，整块棋盘的哈希是所有非空行键的异或
+// 锁定只会改动几行，所以 TetrisGrid 可以增量维护；方块序列用单独的随机键表
+public final class Zobrist {
+
+    // 方块序列最多参与哈希的位置数
+    public static final int MAX_SEQUENCE = 16;
+
+    private static final long[][] PIECE_KEYS = new long[MAX_SEQUENCE][ShapeType.values().length];
+    private static final long[] LINE_KEYS = new long[64];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x7E7A15L);
+        for (long[] keys : PIECE_KEYS) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < LINE_KEYS.length; i++) {
+            LINE_KEYS[i] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    // 空行的键为 0，这样空棋盘的哈希为 0，也不用为空行做异或
+    public static long rowKey(int row, int mask) {
+        if (mask == 0) {
+            return 0L;
+        }
+        long z = ((long) row << 32 | (mask & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // 序列中第 slot 个位置上是 type 方块
+    public static long pieceKey(int slot, ShapeType type) {
+        return PIECE_KEYS[slot][type.ordinal()];
+    }
+
+    // 已经消除的行数（会影响叶子打分时的 completedLines）
+    public static long linesKey(int lines) {
+        return LINE_KEYS[lines & 63] ^ (lines >>> 6);
+    }
+}
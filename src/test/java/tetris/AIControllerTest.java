@@ -0,0 +1,80 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AIControllerTest {
+
+    @Test
+    void spawnListenerRunsOncePerNewPiece() {
+        GameEngine engine = new GameEngine(3L);
+        AtomicInteger spawns = new AtomicInteger();
+        engine.setSpawnListener(e -> {
+            assertEquals(Tetromino.SPAWN_Y, e.getCurrentTetromino().getY());
+            spawns.incrementAndGet();
+        });
+        for (int i = 0; i < 5; i++) {
+            engine.hardDrop();
+        }
+        engine.hold();
+        assertEquals(6, spawns.get(), "five locks and one hold");
+
+        engine.setSpawnListener(null);
+        engine.hardDrop();
+        assertEquals(6, spawns.get());
+    }
+
+    @Test
+    void spawnEventIsAStableCopy() {
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(6L), 3);
+        engine.hardDrop();
+        SpawnEvent event = new SpawnEvent(engine);
+        BoardSnapshot board = event.getBoard();
+        long hash = engine.getGrid().getHash();
+
+        assertSame(engine.getSnapshot(), board, "the event shares the published snapshot");
+        assertEquals(engine.getCurrentTetromino().getId(), event.getPieceId());
+        assertEquals(engine.getCurrentTetromino().getType(), event.getType());
+
+        engine.hardDrop();
+        engine.hardDrop();
+        assertNotSame(board, engine.getSnapshot());
+        TetrisGrid copy = new TetrisGrid(20, 10);
+        event.loadInto(copy);
+        assertEquals(hash, copy.getHash(), "later locks do not leak into the event");
+    }
+
+    @Test
+    void controllerPlaysThroughTheInputQueue() throws InterruptedException {
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(17L), GameEngine.DEFAULT_PREVIEW);
+        AIControllerV1 controller = new AIControllerV1(engine,
+                new LookaheadSearch(new LinearEvaluator(), 1, LookaheadSearch.DEFAULT_BEAM_WIDTH, 1_000_000_000L));
+        engine.setSpawnListener(controller);
+        Thread worker = new Thread(controller, "ai-test");
+        worker.start();
+        // 第一个方块在注册监听之前就出场了，和界面里一样手动通知一次
+        controller.onSpawn(engine);
+        try {
+            long deadline = System.nanoTime() + 20_000_000_000L;
+            // 时间停在 0：没有重力，方块只靠 AI 的输入落下
+            while (engine.getPiecesPlaced() < 20 && System.nanoTime() < deadline) {
+                engine.tick(0);
+                Thread.onSpinWait();
+            }
+        } finally {
+            controller.stop();
+            worker.join(5_000);
+        }
+        assertFalse(worker.isAlive());
+        assertTrue(engine.getPiecesPlaced() >= 20, "pieces placed: " + engine.getPiecesPlaced());
+        assertFalse(engine.isGameOver());
+        assertFalse(controller.isDeciding(), "stopped controllers are not deciding");
+    }
+}
@@ -0,0 +1,76 @@
+package tetris;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 画布不需要启动 JavaFX 应用就能创建和绘制，这里只看每帧重画了多少个格子
+class BoardRendererTest {
+
+    static {
+        // 没有显示环境：用软件渲染管线，不去加载 OpenGL 的本地库
+        System.setProperty("prism.order", "sw");
+    }
+
+    private static BoardRenderer renderer() {
+        Color[] colors = new Color[ShapeType.values().length];
+        Arrays.fill(colors, Color.RED);
+        return new BoardRenderer(20, 10, 10, colors);
+    }
+
+    @Test
+    void firstFrameDrawsEveryOccupiedCell() {
+        BoardRenderer renderer = renderer();
+        TetrisGrid grid = Boards.of("##........");
+        renderer.render(grid.snapshot(), Boards.piece(ShapeType.T, 0, 4, 0));
+        assertEquals(2 + 4, renderer.getLastRepainted());
+    }
+
+    @Test
+    void unchangedFrameIsSkipped() {
+        BoardRenderer renderer = renderer();
+        TetrisGrid grid = Boards.of("##........");
+        Tetromino piece = Boards.piece(ShapeType.T, 0, 4, 0);
+        renderer.render(grid.snapshot(), piece);
+        renderer.render(grid.snapshot(), piece);
+        assertEquals(0, renderer.getLastRepainted());
+    }
+
+    @Test
+    void movingPieceRepaintsOnlyTheDifference() {
+        BoardRenderer renderer = renderer();
+        TetrisGrid grid = Boards.of("##........");
+        Tetromino piece = Boards.piece(ShapeType.T, 0, 4, 0);
+        renderer.render(grid.snapshot(), piece);
+
+        // 下落一行：顶上的尖和两个脚变空，下面一行三格填上，中间那格不动
+        piece.setPosition(4, 1);
+        renderer.render(grid.snapshot(), piece);
+        assertEquals(6, renderer.getLastRepainted());
+
+        // 换朝向只影响形状不同的格子
+        piece.setRotation(1);
+        renderer.render(grid.snapshot(), piece);
+        assertEquals(4, renderer.getLastRepainted());
+    }
+
+    @Test
+    void lockingRepaintsTheBoardChangeAndTheNewPiece() {
+        BoardRenderer renderer = renderer();
+        TetrisGrid grid = new TetrisGrid(20, 10);
+        Tetromino piece = Boards.piece(ShapeType.O, 0, 0, 18);
+        renderer.render(grid.snapshot(), piece);
+        assertEquals(4, renderer.getLastRepainted());
+
+        // 方块锁在原地：格子从方块颜色变成锁定颜色，再加上新出场的方块
+        grid.lockTetromino(piece);
+        renderer.render(grid.snapshot(), Boards.piece(ShapeType.I, 0, 3, 0));
+        assertEquals(4 + 4, renderer.getLastRepainted());
+
+        renderer.render(grid.snapshot(), null);
+        assertEquals(4, renderer.getLastRepainted(), "only the piece disappears");
+    }
+}
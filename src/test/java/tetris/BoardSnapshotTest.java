@@ -0,0 +1,93 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardSnapshotTest {
+
+    @Test
+    void unchangedGridPublishesTheSameSnapshot() {
+        TetrisGrid grid = Boards.of("#.........");
+        BoardSnapshot first = grid.snapshot();
+        assertSame(first, grid.snapshot());
+
+        grid.lockTetromino(Boards.piece(ShapeType.O, 0, 4, 17));
+        BoardSnapshot second = grid.snapshot();
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+    }
+
+    @Test
+    void oldSnapshotsDoNotSeeLaterChanges() {
+        TetrisGrid grid = Boards.of("#.........");
+        BoardSnapshot before = grid.snapshot();
+        grid.lockTetromino(Boards.piece(ShapeType.O, 0, 4, 18));
+        BoardSnapshot after = grid.snapshot();
+
+        assertEquals(Boards.mask("#........."), before.getRowMask(19));
+        assertArrayEquals(new int[]{1, 0, 0, 0, 0, 0, 0, 0, 0, 0}, before.getRow(19));
+        assertEquals(Boards.mask("#...##...."), after.getRowMask(19));
+        assertArrayEquals(new int[]{1, 0, 0, 0, 1, 1, 0, 0, 0, 0}, after.getRow(19));
+    }
+
+    @Test
+    void untouchedRowsShareTheirCells() {
+        TetrisGrid grid = Boards.of(
+                "#.........",
+                "##........");
+        BoardSnapshot before = grid.snapshot();
+        grid.lockTetromino(Boards.piece(ShapeType.O, 0, 6, 16));
+        BoardSnapshot after = grid.snapshot();
+
+        assertSame(before.getRow(18), after.getRow(18));
+        assertSame(before.getRow(19), after.getRow(19));
+        assertNotSame(before.getRow(17), after.getRow(17));
+        // 空行共用同一个数组
+        assertSame(after.getRow(0), after.getRow(15));
+        assertSame(before.getRow(0), after.getRow(0));
+    }
+
+    @Test
+    void rowsShiftedByAClearAreReused() {
+        TetrisGrid grid = Boards.of(
+                "#.#.......",
+                ".##.......",
+                "########..");
+        BoardSnapshot before = grid.snapshot();
+        grid.lockTetromino(Boards.piece(ShapeType.O, 0, 8, 18));
+        grid.clearFullLines();
+        BoardSnapshot after = grid.snapshot();
+
+        // 消掉一行之后上面两行各下移一行，格子数组还是原来那两个
+        assertSame(before.getRow(17), after.getRow(18));
+        assertEquals(Boards.mask("#.#......."), after.getRowMask(18));
+        assertEquals(Boards.mask(".##.....##"), after.getRowMask(19));
+        assertArrayEquals(new int[]{0, 1, 1, 0, 0, 0, 0, 0, 1, 1}, after.getRow(19));
+    }
+
+    @Test
+    void snapshotMatchesTheGridAfterAGame() {
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(2L), 0);
+        PlacementSearch player = new PlacementSearch();
+        for (int i = 0; i < 150 && !engine.isGameOver(); i++) {
+            player.playPiece(engine);
+            BoardSnapshot snapshot = engine.getSnapshot();
+            TetrisGrid grid = engine.getGrid();
+            for (int row = 0; row < grid.getRows(); row++) {
+                assertEquals(grid.getRowMask(row), snapshot.getRowMask(row));
+                for (int col = 0; col < grid.getCols(); col++) {
+                    assertEquals(grid.isOccupied(row, col) ? 1 : 0, snapshot.getRow(row)[col]);
+                }
+            }
+            TetrisGrid copy = new TetrisGrid(20, 10);
+            snapshot.loadInto(copy);
+            assertEquals(grid.getHash(), copy.getHash());
+        }
+        assertTrue(engine.getLinesCleared() > 0);
+    }
+}
@@ -0,0 +1,44 @@
+package tetris;
+
+// 测试用的局面：按文字画出棋盘最下面的几行，'#' 是占用，其余字符是空；上面没画的行都是空的
+final class Boards {
+
+    private Boards() {
+    }
+
+    static TetrisGrid of(String... bottomRows) {
+        return of(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS, bottomRows);
+    }
+
+    static TetrisGrid of(int rows, int cols, String... bottomRows) {
+        TetrisGrid grid = new TetrisGrid(rows, cols);
+        grid.setRowMasks(masks(rows, bottomRows));
+        return grid;
+    }
+
+    static int[] masks(int rows, String... bottomRows) {
+        int[] masks = new int[rows];
+        int first = rows - bottomRows.length;
+        for (int i = 0; i < bottomRows.length; i++) {
+            masks[first + i] = mask(bottomRows[i]);
+        }
+        return masks;
+    }
+
+    static int mask(String row) {
+        int mask = 0;
+        for (int col = 0; col < row.length(); col++) {
+            if (row.charAt(col) == '#') {
+                mask |= 1 << col;
+            }
+        }
+        return mask;
+    }
+
+    static Tetromino piece(ShapeType type, int rotation, int x, int y) {
+        Tetromino piece = new Tetromino(type, 0);
+        piece.setRotation(rotation);
+        piece.setPosition(x, y);
+        return piece;
+    }
+}
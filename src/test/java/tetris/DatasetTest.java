@@ -0,0 +1,122 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatasetTest {
+
+    // 录制时在锁定前记下来的一条决策：局面掩码 + 落点
+    private record Decision(int[] masks, ShapeType type, int rotation, int x, int y) {
+    }
+
+    // 跑一局并写进数据集，返回每个方块锁定前的局面和落点
+    private static List<Decision> play(DatasetWriter writer, int rows, int cols, long seed, int pieces) {
+        GameEngine engine = new GameEngine(rows, cols, new BagPieceGenerator(seed), GameEngine.DEFAULT_PREVIEW);
+        DatasetWriter.Game game = writer.beginGame(seed);
+        List<Decision> decisions = new ArrayList<>();
+        engine.setLockListener(e -> {
+            int[] masks = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                masks[row] = e.getGrid().getRowMask(row);
+            }
+            Tetromino piece = e.getCurrentTetromino();
+            decisions.add(new Decision(masks, piece.getType(), piece.getRotation(), piece.getX(), piece.getY()));
+            game.onLock(e);
+        });
+        PlacementSearch player = new PlacementSearch();
+        while (!engine.isGameOver() && engine.getPiecesPlaced() < pieces) {
+            player.playPiece(engine);
+        }
+        game.finish(engine);
+        return decisions;
+    }
+
+    @Test
+    void recordsRoundTrip(@TempDir Path dir) {
+        roundTrip(dir.resolve("standard.tds"), 20, 10);
+    }
+
+    @Test
+    void rowsSpanningWordsRoundTrip(@TempDir Path dir) {
+        // 12 列：有的行会跨两个 long
+        roundTrip(dir.resolve("wide.tds"), 22, 12);
+    }
+
+    private static void roundTrip(Path file, int rows, int cols) {
+        Map<Long, List<Decision>> games = new HashMap<>();
+        try (DatasetWriter writer = new DatasetWriter(file, rows, cols)) {
+            games.put(1L, play(writer, rows, cols, 1L, 70));
+            games.put(2L, play(writer, rows, cols, 2L, 25));
+            games.put(3L, play(writer, rows, cols, 3L, 3));
+        }
+
+        try (DatasetReader reader = new DatasetReader(file)) {
+            assertEquals(rows, reader.getRows());
+            assertEquals(cols, reader.getCols());
+            DatasetReader.Cursor cursor = reader.cursor();
+            TetrisGrid grid = new TetrisGrid(rows, cols);
+            int[] scratch = new int[rows];
+            BoardFeatures features = new BoardFeatures();
+            int records = 0;
+            while (cursor.next()) {
+                records++;
+                List<Decision> decisions = games.get(cursor.getSeed());
+                Decision expected = decisions.get(cursor.getPieceIndex());
+                assertEquals(expected.type(), cursor.getType());
+                assertEquals(expected.rotation(), cursor.getRotation());
+                assertEquals(expected.x(), cursor.getX());
+                assertEquals(expected.y(), cursor.getY());
+                for (int row = 0; row < rows; row++) {
+                    assertEquals(expected.masks()[row], cursor.getRowMask(row), "row " + row);
+                }
+                assertTrue(cursor.isFinished());
+                assertFalse(cursor.isToppedOut());
+                assertEquals(decisions.size(), cursor.getFinalPieces());
+                assertEquals(decisions.size() - cursor.getPieceIndex() - 1, cursor.getPiecesRemaining());
+
+                // 特征是落点锁定并消行之后的局面
+                cursor.loadInto(grid, scratch);
+                assertArrayEquals(expected.masks(), scratch);
+                Orientation orientation = RotationTable.get(expected.type(), expected.rotation());
+                grid.lock(orientation.getRowMasks(), expected.x(), expected.y());
+                features.compute(grid, grid.clearRows());
+                for (Feature feature : Feature.values()) {
+                    assertEquals(features.get(feature), cursor.getFeature(feature), feature.name());
+                }
+            }
+            assertEquals(70 + 25 + 3, records, "empty reserved slots are skipped");
+        }
+    }
+
+    @Test
+    void firstRecordHasAnEmptyBoardAndNoHold(@TempDir Path dir) {
+        Path file = dir.resolve("one.tds");
+        try (DatasetWriter writer = new DatasetWriter(file, 20, 10)) {
+            play(writer, 20, 10, 8L, 1);
+            assertTrue(writer.getRecordCount() >= 1);
+        }
+        try (DatasetReader reader = new DatasetReader(file)) {
+            DatasetReader.Cursor cursor = reader.cursor();
+            assertTrue(cursor.next());
+            assertEquals(0, cursor.getPieceIndex());
+            assertNull(cursor.getHoldPiece());
+            assertFalse(cursor.isHold());
+            for (int row = 0; row < 20; row++) {
+                assertEquals(0, cursor.getRowMask(row));
+            }
+            assertFalse(cursor.next());
+        }
+    }
+}
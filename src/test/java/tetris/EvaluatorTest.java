@@ -0,0 +1,87 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluatorTest {
+
+    // 列高 3 1 2 1 0 ...，第 2 列底下有一个洞，第 1 列是深 1 的井
+    private static final String[] BOARD = {
+            "#.........",
+            "#.#.......",
+            "##.#......"};
+
+    @Test
+    void featuresOfAHandCountedBoard() {
+        BoardFeatures features = new BoardFeatures();
+        features.compute(Boards.of(BOARD), 2);
+
+        assertEquals(7, features.get(Feature.AGGREGATE_HEIGHT));
+        assertEquals(1, features.get(Feature.HOLES));
+        assertEquals(5, features.get(Feature.BUMPINESS));
+        assertEquals(2, features.get(Feature.COMPLETED_LINES));
+        assertEquals(1, features.get(Feature.WELLS));
+        assertEquals(10, features.get(Feature.ROW_TRANSITIONS));
+        // 从上往下 1 + 1 + 3，再加上地板那一行有 7 列是空的
+        assertEquals(12, features.get(Feature.COLUMN_TRANSITIONS));
+    }
+
+    @Test
+    void emptyBoardHasNoFeatures() {
+        BoardFeatures features = new BoardFeatures();
+        features.compute(new TetrisGrid(20, 10), 0);
+        for (Feature feature : Feature.values()) {
+            if (feature != Feature.COLUMN_TRANSITIONS) {
+                assertEquals(0, features.get(feature), feature.name());
+            }
+        }
+    }
+
+    @Test
+    void linearEvaluatorIsTheWeightedSum() {
+        double[] weights = {-1, -10, -0.5, 3, 0.25, -2, 0.125};
+        LinearEvaluator evaluator = new LinearEvaluator(new EvaluatorWeights(weights));
+        TetrisGrid grid = Boards.of(BOARD);
+
+        BoardFeatures features = new BoardFeatures();
+        features.compute(grid, 1);
+        double expected = 0;
+        for (Feature feature : Feature.values()) {
+            expected += weights[feature.ordinal()] * features.get(feature);
+        }
+        assertEquals(expected, evaluator.evaluate(grid, 1), 1e-9);
+    }
+
+    @Test
+    void defaultWeightsPreferFewerHoles() {
+        LinearEvaluator evaluator = new LinearEvaluator();
+        TetrisGrid flat = Boards.of("####......");
+        TetrisGrid holey = Boards.of(
+                "##.#......",
+                "#.........");
+        assertTrue(evaluator.evaluate(flat, 0) > evaluator.evaluate(holey, 0));
+    }
+
+    @Test
+    void weightsRoundTripThroughProperties(@TempDir Path dir) {
+        EvaluatorWeights weights = new EvaluatorWeights(new double[]{-0.5, -0.25, -0.125, 1, 0.0625, 0, -3});
+        Path file = dir.resolve("weights.properties");
+        weights.save(file, "test");
+
+        EvaluatorWeights loaded = EvaluatorWeights.load(file);
+        assertArrayEquals(weights.toArray(), loaded.toArray());
+        assertEquals(-0.25, loaded.get(Feature.HOLES));
+    }
+
+    @Test
+    void rejectsTheWrongNumberOfWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new EvaluatorWeights(new double[3]));
+    }
+}
@@ -0,0 +1,120 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameEngineTest {
+
+    // 只出 O 的引擎，落点好算
+    private static GameEngine onlyO() {
+        return new GameEngine(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS, () -> ShapeType.O, 0);
+    }
+
+    @Test
+    void piecesSpawnAtTheSpawnPosition() {
+        GameEngine engine = new GameEngine(42L);
+        Tetromino piece = engine.getCurrentTetromino();
+
+        assertEquals(Tetromino.SPAWN_X, piece.getX());
+        assertEquals(Tetromino.SPAWN_Y, piece.getY());
+        assertEquals(0, piece.getRotation());
+        int id = piece.getId();
+
+        engine.hardDrop();
+        assertEquals(id + 1, engine.getCurrentTetromino().getId());
+        assertEquals(Tetromino.SPAWN_X, engine.getCurrentTetromino().getX());
+        assertEquals(Tetromino.SPAWN_Y, engine.getCurrentTetromino().getY());
+    }
+
+    @Test
+    void movesStopAtTheWalls() {
+        GameEngine engine = onlyO();
+        for (int i = 0; i < Tetromino.SPAWN_X; i++) {
+            assertTrue(engine.moveLeft());
+        }
+        assertFalse(engine.moveLeft(), "already at the left wall");
+        assertEquals(0, engine.getCurrentTetromino().getX());
+        assertEquals(Tetromino.SPAWN_X, engine.getPieceInputCount(), "failed moves are not recorded");
+
+        while (engine.moveRight()) {
+            // 一直移到右墙
+        }
+        assertEquals(GameEngine.DEFAULT_COLS - 2, engine.getCurrentTetromino().getX());
+    }
+
+    @Test
+    void hardDropLocksAndSpawnsTheNextPiece() {
+        GameEngine engine = onlyO();
+
+        assertEquals(GameEngine.DEFAULT_ROWS - 2, engine.hardDrop());
+        assertEquals(1, engine.getPiecesPlaced());
+        assertEquals(Boards.mask("....##...."), engine.getGrid().getRowMask(GameEngine.DEFAULT_ROWS - 1));
+        assertEquals(Boards.mask("....##...."), engine.getGrid().getRowMask(GameEngine.DEFAULT_ROWS - 2));
+        assertEquals(Tetromino.SPAWN_Y, engine.getCurrentTetromino().getY());
+    }
+
+    @Test
+    void stepFallsOneRowAndLocksOnTheFloor() {
+        GameEngine engine = onlyO();
+        for (int i = 0; i < GameEngine.DEFAULT_ROWS - 2; i++) {
+            assertTrue(engine.step());
+        }
+        assertEquals(0, engine.getPiecesPlaced());
+        assertFalse(engine.step(), "cannot fall any further, locks");
+        assertEquals(1, engine.getPiecesPlaced());
+    }
+
+    @Test
+    void placeClearsFullLines() {
+        GameEngine engine = onlyO();
+        for (int x = 0; x < GameEngine.DEFAULT_COLS; x += 2) {
+            assertTrue(engine.place(0, x));
+        }
+        assertEquals(2, engine.getLinesCleared());
+        assertEquals(5, engine.getPiecesPlaced());
+        assertTrue(engine.getScore() > 0);
+        for (int col = 0; col < GameEngine.DEFAULT_COLS; col++) {
+            assertEquals(0, engine.getGrid().getColumnHeight(col));
+        }
+    }
+
+    @Test
+    void gameEndsWhenTheSpawnIsBlocked() {
+        GameEngine engine = onlyO();
+        while (!engine.isGameOver()) {
+            engine.hardDrop();
+        }
+        // 每个 O 占两行，叠满 20 行后出场位置被占
+        assertEquals(GameEngine.DEFAULT_ROWS / 2, engine.getPiecesPlaced());
+        assertFalse(engine.moveLeft());
+        assertFalse(engine.step());
+        assertEquals(0, engine.hardDrop());
+        assertEquals(GameEngine.DEFAULT_ROWS / 2, engine.getPiecesPlaced());
+    }
+
+    @Test
+    void sameSeedPlaysTheSameGame() {
+        assertEquals(play(7L), play(7L));
+    }
+
+    // 每个方块按类型挑一个固定的落点，记下出场顺序和结果
+    private static List<String> play(long seed) {
+        GameEngine engine = new GameEngine(seed);
+        List<String> log = new ArrayList<>();
+        while (!engine.isGameOver() && engine.getPiecesPlaced() < 200) {
+            ShapeType type = engine.getCurrentTetromino().getType();
+            log.add(type.name());
+            if (!engine.place(type.ordinal() % RotationTable.count(type), type.ordinal())) {
+                engine.hardDrop();
+            }
+        }
+        log.add(engine.getPiecesPlaced() + "/" + engine.getScore() + "/" + engine.getLinesCleared());
+        return log;
+    }
+}
@@ -0,0 +1,102 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GravityTest {
+
+    private static final long MS = 1_000_000L;
+
+    private static GameEngine engine(GameRules rules) {
+        return new GameEngine(20, 10, () -> ShapeType.O, GameEngine.DEFAULT_PREVIEW, rules);
+    }
+
+    private static long intervalAt(int level) {
+        return engine(new GameRules(level, GameEngine.DEFAULT_LOCK_DELAY_NANOS, GameEngine.DEFAULT_MAX_LOCK_RESETS))
+                .getDropIntervalNanos();
+    }
+
+    @Test
+    void gravityCurveSpeedsUpToTwentyG() {
+        assertEquals(1_000_000_000L, intervalAt(1));
+        assertEquals(GameEngine.MIN_DROP_INTERVAL_NANOS, intervalAt(GameEngine.MAX_LEVEL));
+        assertEquals(20.0, GameEngine.gravityOf(GameEngine.MIN_DROP_INTERVAL_NANOS), 1e-3);
+        assertEquals(1.0 / 60, GameEngine.gravityOf(intervalAt(1)), 1e-9);
+        for (int level = 2; level <= GameEngine.MAX_LEVEL; level++) {
+            assertTrue(intervalAt(level) <= intervalAt(level - 1), "level " + level);
+        }
+        assertTrue(intervalAt(10) < intervalAt(9));
+    }
+
+    @Test
+    void gravityCatchesUpWithTheClock() {
+        GameEngine engine = engine(GameRules.DEFAULT);
+        int spawnY = engine.getCurrentTetromino().getY();
+        // 第一次 tick 只开始计时
+        engine.tick(0);
+        engine.tick(999 * MS);
+        assertEquals(spawnY, engine.getCurrentTetromino().getY());
+        assertTrue(engine.tick(1000 * MS));
+        assertEquals(spawnY + 1, engine.getCurrentTetromino().getY());
+        // 隔了很久才来一帧：欠的行数一次补上
+        engine.tick(3500 * MS);
+        assertEquals(spawnY + 3, engine.getCurrentTetromino().getY());
+    }
+
+    @Test
+    void twentyGLandsInOneTickAndLocksAfterTheDelay() {
+        GameEngine engine = engine(new GameRules(GameEngine.MAX_LEVEL, 500 * MS, 15));
+        engine.tick(0);
+        // 20G：一帧（1/60 秒）之内从出场位置直接落到底
+        long grounded = 20 * GameEngine.MIN_DROP_INTERVAL_NANOS;
+        engine.tick(grounded);
+        assertEquals(18, engine.getCurrentTetromino().getY());
+
+        engine.tick(grounded + 499 * MS);
+        assertEquals(0, engine.getPiecesPlaced());
+        engine.tick(grounded + 500 * MS);
+        assertEquals(1, engine.getPiecesPlaced());
+    }
+
+    @Test
+    void movingOnTheGroundResetsTheLockDelayUpToTheLimit() {
+        GameEngine engine = engine(new GameRules(GameEngine.MAX_LEVEL, 500 * MS, 2));
+        engine.tick(0);
+        long t = 20 * GameEngine.MIN_DROP_INTERVAL_NANOS;
+        engine.tick(t);
+        assertEquals(18, engine.getCurrentTetromino().getY());
+
+        // 两次重置：每次都重新等满 500ms
+        assertTrue(engine.moveLeft());
+        engine.tick(t + 400 * MS);
+        assertTrue(engine.moveRight());
+        engine.tick(t + 800 * MS);
+
+        // 次数用完之后再移动也不再重新计时：还是从 800ms 起算
+        assertTrue(engine.moveLeft());
+        engine.tick(t + 1000 * MS);
+        engine.tick(t + 1299 * MS);
+        assertEquals(0, engine.getPiecesPlaced());
+        engine.tick(t + 1300 * MS);
+        assertEquals(1, engine.getPiecesPlaced());
+    }
+
+    @Test
+    void startLevelAndRulesAreValidated() {
+        GameEngine engine = engine(new GameRules(5, 0, 0));
+        assertEquals(5, engine.getLevel());
+        assertEquals(intervalAt(5), engine.getDropIntervalNanos());
+
+        assertThrows(IllegalArgumentException.class, () -> new GameRules(0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GameRules(GameEngine.MAX_LEVEL + 1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GameRules(1, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GameRules(1, 0, -1));
+
+        engine.setDropIntervalNanos(123 * MS);
+        assertEquals(123 * MS, engine.getDropIntervalNanos());
+        assertThrows(IllegalArgumentException.class, () -> engine.setDropIntervalNanos(0));
+    }
+}
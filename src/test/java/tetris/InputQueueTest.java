@@ -0,0 +1,132 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputQueueTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new InputQueue(1).capacity());
+        assertEquals(8, new InputQueue(5).capacity());
+        assertEquals(64, new InputQueue(64).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new InputQueue(0));
+        assertThrows(IllegalArgumentException.class, () -> new InputQueue(5).offer(-1));
+    }
+
+    @Test
+    void fullAndEmptyQueues() {
+        InputQueue queue = new InputQueue(4);
+        assertEquals(InputQueue.EMPTY, queue.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4), "queue is full");
+        assertEquals(4, queue.size());
+
+        assertEquals(0, queue.poll());
+        assertTrue(queue.offer(4), "one slot was freed");
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(InputQueue.EMPTY, queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void wrapsAroundAndClears() {
+        InputQueue queue = new InputQueue(4);
+        // 下标绕回很多圈之后顺序不变
+        for (int round = 0; round < 100; round++) {
+            assertTrue(queue.offer(round));
+            assertTrue(queue.offer(round + 1000));
+            assertEquals(round, queue.poll());
+            assertEquals(round + 1000, queue.poll());
+        }
+        queue.offer(1);
+        queue.offer(2);
+        queue.clear();
+        assertEquals(InputQueue.EMPTY, queue.poll());
+        assertTrue(queue.offer(3));
+        assertEquals(3, queue.poll());
+    }
+
+    // 单核机器上两个线程只能靠调度器轮换：等待时让出 CPU，丢了唤醒或顺序错了就超时失败而不是卡住构建
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void producerAndConsumerThreadsSeeEveryCommandInOrder() throws InterruptedException {
+        InputQueue queue = new InputQueue(16);
+        int count = 10_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!queue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            int expected = 0;
+            while (expected < count) {
+                int command = queue.poll();
+                if (command == InputQueue.EMPTY) {
+                    Thread.yield();
+                } else if (command != expected++) {
+                    error.set("expected " + (expected - 1) + " got " + command);
+                    return;
+                }
+            }
+        });
+        // 超时失败时不让这两个线程拖住 JVM
+        producer.setDaemon(true);
+        consumer.setDaemon(true);
+        producer.start();
+        consumer.start();
+        producer.join();
+        consumer.join();
+        assertNull(error.get());
+        assertEquals(InputQueue.EMPTY, queue.poll());
+    }
+
+    @Test
+    void engineAppliesThePlanForTheCurrentPiece() {
+        GameEngine engine = new GameEngine(20, 10, () -> ShapeType.T, GameEngine.DEFAULT_PREVIEW);
+        int id = engine.getCurrentTetromino().getId();
+        engine.getAiInputs().offer(GameEngine.aiCommand(id, Input.LEFT));
+        engine.getAiInputs().offer(GameEngine.aiCommand(id, Input.LEFT));
+        assertTrue(engine.tick(0));
+        assertEquals(Tetromino.SPAWN_X - 2, engine.getCurrentTetromino().getX());
+
+        engine.getAiInputs().offer(GameEngine.aiCommand(id, Input.HARD_DROP));
+        engine.tick(0);
+        assertEquals(1, engine.getPiecesPlaced());
+
+        // 针对已经锁定的方块的指令直接丢掉
+        engine.getAiInputs().offer(GameEngine.aiCommand(id, Input.RIGHT));
+        assertFalse(engine.tick(0));
+        assertEquals(Tetromino.SPAWN_X, engine.getCurrentTetromino().getX());
+    }
+
+    @Test
+    void engineDropsAPlanThatNoLongerMatchesThePiece() {
+        GameEngine engine = new GameEngine(20, 10, () -> ShapeType.T, GameEngine.DEFAULT_PREVIEW);
+        int id = engine.getCurrentTetromino().getId();
+        // AI 思考期间方块被挪动了：计划是按出场位置算的，整段作废
+        assertTrue(engine.moveRight());
+        engine.getAiInputs().offer(GameEngine.aiCommand(id, Input.LEFT));
+        engine.getAiInputs().offer(GameEngine.aiCommand(id, Input.HARD_DROP));
+        assertFalse(engine.tick(0));
+        assertEquals(Tetromino.SPAWN_X + 1, engine.getCurrentTetromino().getX());
+        assertEquals(0, engine.getPiecesPlaced());
+        assertEquals(0, engine.getAiInputs().size());
+    }
+}
@@ -0,0 +1,68 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class IterativeDeepeningTest {
+
+    private static final ShapeType[] PREVIEW = {ShapeType.T, ShapeType.S, ShapeType.Z, ShapeType.L};
+
+    private static Placement search(LookaheadSearch search, int previewLength, long deadline) {
+        return search.findBest(Boards.of("##..#....#"), ShapeType.J, 0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y,
+                PREVIEW, previewLength, null, true, deadline);
+    }
+
+    @Test
+    void reachesFullDepthWithinTheBudget() {
+        LookaheadSearch search = new LookaheadSearch(new LinearEvaluator(), 3, 4, Long.MAX_VALUE / 4);
+        assertNotNull(search.findBest(Boards.of("##..#....#"), ShapeType.J, 0, Tetromino.SPAWN_X,
+                Tetromino.SPAWN_Y, PREVIEW, PREVIEW.length, null, true));
+
+        assertEquals(3, search.getLastDepth());
+        assertEquals(1, search.getDepthCount(3));
+    }
+
+    @Test
+    void depthIsLimitedByThePreview() {
+        LookaheadSearch search = new LookaheadSearch(new LinearEvaluator(), 4, 4, Long.MAX_VALUE / 4);
+        assertNotNull(search(search, 1, System.nanoTime() + Long.MAX_VALUE / 4));
+        assertEquals(2, search.getLastDepth(), "current piece plus one preview piece");
+    }
+
+    @Test
+    void expiredDeadlineStillAnswersFromDepthOne() {
+        LookaheadSearch search = new LookaheadSearch(new LinearEvaluator(), 3, 4, Long.MAX_VALUE / 4);
+        Placement placement = search(search, PREVIEW.length, System.nanoTime() - 1);
+
+        assertNotNull(placement, "depth 1 ignores the deadline");
+        assertEquals(1, search.getLastDepth());
+        assertEquals(1, search.getDepthCount(1));
+        assertEquals(0, search.getDepthCount(3));
+    }
+
+    @Test
+    void drainMovesCountsIntoTheTotals() {
+        LookaheadSearch search = new LookaheadSearch(new LinearEvaluator(), 3, 4, Long.MAX_VALUE / 4);
+        search(search, PREVIEW.length, System.nanoTime() - 1);
+        for (int i = 0; i < 3; i++) {
+            search(search, PREVIEW.length, System.nanoTime() + Long.MAX_VALUE / 4);
+        }
+        LongAdder[] totals = new LongAdder[search.getMaxDepth() + 1];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = new LongAdder();
+        }
+
+        search.drainDepthCounts(totals);
+        assertEquals(1, totals[1].sum());
+        assertEquals(3, totals[3].sum());
+        assertEquals(0, search.getDepthCount(3), "drained counts are reset");
+        assertEquals("depth 1:25.0% 3:75.0% (4 moves)", LookaheadSearch.depthReport(totals));
+
+        search.drainDepthCounts(totals);
+        assertEquals(3, totals[3].sum(), "nothing new to drain");
+    }
+}
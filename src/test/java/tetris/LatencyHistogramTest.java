@@ -0,0 +1,93 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesHaveTheirOwnBucket() {
+        for (long v = 0; v < 64; v++) {
+            assertEquals(v, LatencyHistogram.bucketOf(v));
+            assertEquals(v, LatencyHistogram.lowerBound((int) v));
+        }
+    }
+
+    @Test
+    void bucketsBoundTheValueWithinThreePercent() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long v = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int bucket = LatencyHistogram.bucketOf(v);
+            long lower = LatencyHistogram.lowerBound(bucket);
+            assertTrue(lower <= v, v + " below bucket " + bucket);
+            if (v < Long.MAX_VALUE / 2) {
+                assertTrue(v < LatencyHistogram.lowerBound(bucket + 1), v + " above bucket " + bucket);
+            }
+            assertTrue(v - lower <= v / 32, "relative error for " + v);
+        }
+        // 最大值也落在数组里
+        int last = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+        assertTrue(last < new LatencyHistogram("x").snapshot().length - 2);
+    }
+
+    @Test
+    void bucketLowerBoundsIncrease() {
+        int last = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+        for (int bucket = 1; bucket <= last; bucket++) {
+            assertTrue(LatencyHistogram.lowerBound(bucket) > LatencyHistogram.lowerBound(bucket - 1));
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.lowerBound(bucket)));
+        }
+    }
+
+    @Test
+    void summaryReportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram("decide");
+        for (long v = 1; v <= 100; v++) {
+            histogram.record(v);
+        }
+        histogram.record(-5);
+        String summary = histogram.summary();
+
+        assertTrue(summary.startsWith("decide count=101 "), summary);
+        assertTrue(summary.contains(" p50=50 "), summary);
+        // 64 以上每个桶宽 2，报告的是桶的下界
+        assertTrue(summary.contains(" p90=90 "), summary);
+        assertTrue(summary.contains(" p99=98 "), summary);
+        assertTrue(summary.endsWith(" max=100"), summary);
+        assertTrue(histogram.buckets().startsWith("decide buckets 0:1 1:1 2:1 "), histogram.buckets());
+    }
+
+    @Test
+    void recordsFromManyThreadsAreMerged() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram("threads");
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long value = 1000L * (t + 1);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(value);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long[] counts = histogram.snapshot();
+        long total = 0;
+        for (int i = 0; i < counts.length - 2; i++) {
+            total += counts[i];
+        }
+        assertEquals(80_000, total);
+        assertEquals(8000, counts[counts.length - 1], "max");
+        assertEquals(10_000L * 1000 * 36, counts[counts.length - 2], "sum");
+
+        histogram.reset();
+        assertEquals("threads count=0", histogram.summary());
+    }
+}
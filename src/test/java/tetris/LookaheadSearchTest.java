@@ -0,0 +1,115 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LookaheadSearchTest {
+
+    private static final String[] TETRIS_READY = {
+            "#########.",
+            "#########.",
+            "#########.",
+            "#########."};
+
+    @Test
+    void previewFollowsThePieceSequence() {
+        ShapeType[] expected = new ShapeType[12];
+        PieceGenerator reference = new BagPieceGenerator(21L);
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = reference.next();
+        }
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(21L), 5);
+
+        for (int piece = 0; piece < 6; piece++) {
+            assertEquals(expected[piece], engine.getCurrentTetromino().getType());
+            for (int i = 0; i < engine.getPreviewLength(); i++) {
+                assertEquals(expected[piece + 1 + i], engine.getPreview(i));
+            }
+            engine.hardDrop();
+        }
+    }
+
+    @Test
+    void holdSwapsOncePerPiece() {
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(4L), 3);
+        ShapeType first = engine.getCurrentTetromino().getType();
+        ShapeType next = engine.getPreview(0);
+
+        assertNull(engine.getHoldPiece());
+        assertTrue(engine.hold());
+        assertEquals(first, engine.getHoldPiece());
+        assertEquals(next, engine.getCurrentTetromino().getType(), "empty slot takes the next piece");
+        assertFalse(engine.canHold());
+        assertFalse(engine.hold(), "only one hold per piece");
+
+        engine.hardDrop();
+        assertTrue(engine.canHold());
+        ShapeType current = engine.getCurrentTetromino().getType();
+        assertTrue(engine.hold());
+        assertEquals(first, engine.getCurrentTetromino().getType(), "held piece comes back");
+        assertEquals(current, engine.getHoldPiece());
+        assertEquals(Tetromino.SPAWN_X, engine.getCurrentTetromino().getX());
+        assertEquals(Tetromino.SPAWN_Y, engine.getCurrentTetromino().getY());
+    }
+
+    @Test
+    void takesTheTetrisWithTheCurrentPiece() {
+        LookaheadSearch search = new LookaheadSearch(new LinearEvaluator(), 1, LookaheadSearch.DEFAULT_BEAM_WIDTH,
+                Long.MAX_VALUE / 4);
+        Placement placement = search.findBest(Boards.of(TETRIS_READY), ShapeType.I, 0, Tetromino.SPAWN_X,
+                Tetromino.SPAWN_Y, new ShapeType[]{ShapeType.O}, 1, null, false);
+
+        assertNotNull(placement);
+        assertFalse(placement.isHold());
+        assertEquals(1, placement.getRotation());
+        assertEquals(9, placement.getX());
+        assertEquals(16, placement.getY());
+    }
+
+    @Test
+    void holdsToReachTheTetris() {
+        LookaheadSearch search = new LookaheadSearch(new LinearEvaluator(), 2, LookaheadSearch.DEFAULT_BEAM_WIDTH,
+                Long.MAX_VALUE / 4);
+        Placement placement = search.findBest(Boards.of(TETRIS_READY), ShapeType.S, 0, Tetromino.SPAWN_X,
+                Tetromino.SPAWN_Y, new ShapeType[]{ShapeType.Z, ShapeType.S}, 2, ShapeType.I, true);
+
+        assertNotNull(placement);
+        assertTrue(placement.isHold());
+        assertEquals(Input.HOLD, placement.getInputs()[0]);
+        assertEquals(1, placement.getRotation());
+        assertEquals(9, placement.getX());
+    }
+
+    @Test
+    void inputsLeadTheEngineToTheChosenPlacement() {
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(8L), GameEngine.DEFAULT_PREVIEW);
+        LookaheadSearch search = new LookaheadSearch(new LinearEvaluator(), 2, LookaheadSearch.DEFAULT_BEAM_WIDTH,
+                Long.MAX_VALUE / 4);
+        for (int piece = 0; piece < 30; piece++) {
+            Placement placement = search.findBest(engine);
+            for (byte input : placement.getInputs()) {
+                assertTrue(Input.apply(engine, input));
+            }
+            Tetromino current = engine.getCurrentTetromino();
+            assertEquals(placement.getRotation(), current.getRotation());
+            assertEquals(placement.getX(), current.getX());
+            assertEquals(placement.getY(), current.getY());
+            engine.hardDrop();
+        }
+        assertFalse(engine.isGameOver());
+    }
+
+    @Test
+    void playsLongGamesWithoutToppingOut() {
+        GameEngine engine = SimulationRunner.playGame(
+                new LookaheadSearch(new LinearEvaluator(), 2, 4, Long.MAX_VALUE / 4), 12L, 300);
+        assertFalse(engine.isGameOver());
+        assertEquals(300, engine.getPiecesPlaced());
+        assertTrue(engine.getLinesCleared() >= 100);
+    }
+}
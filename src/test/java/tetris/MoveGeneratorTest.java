@@ -0,0 +1,133 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveGeneratorTest {
+
+    private final MoveGenerator generator = new MoveGenerator(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS);
+    private final int[] states = new int[generator.maxStates()];
+    private final byte[] path = new byte[generator.maxStates()];
+
+    @Test
+    void findsTucksUnderOverhangs() {
+        TetrisGrid grid = Boards.of(
+                "######....",
+                "..........",
+                "..........");
+        int count = generator.generate(grid, ShapeType.O, 0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y, states);
+
+        // 从上面直接落下只能停在悬空上面，塞到下面要先落到底再往左移
+        int tuck = find(count, 0, 0, 18);
+        assertTrue(tuck >= 0, "O tucked into the left corner");
+        assertEquals(15, PlacementGenerator.landingRow(grid, RotationTable.get(ShapeType.O, 0), 0));
+        int length = generator.pathTo(tuck, path);
+        assertEquals(Input.LEFT, path[length - 1]);
+    }
+
+    @Test
+    void findsTSpinSlotsReachableOnlyByCounterClockwiseRotation() {
+        TetrisGrid grid = Boards.of(
+                "###.......",
+                "##....####",
+                "###.######");
+        int count = generator.generate(grid, ShapeType.T, 0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y, states);
+
+        int slot = find(count, 3, 2, 17);
+        assertTrue(slot >= 0, "T pointing left in the slot");
+        assertNotEquals(17, PlacementGenerator.landingRow(grid, RotationTable.get(ShapeType.T, 3), 2));
+        int length = generator.pathTo(slot, path);
+        assertEquals(Input.ROTATE_CCW, path[length - 1], "three clockwise turns would hit the overhang");
+
+        // 照着路径在引擎里走一遍：落点一致，并且算 T-spin
+        GameEngine engine = new GameEngine(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS, () -> ShapeType.T, 0);
+        engine.getGrid().setRowMasks(Boards.masks(GameEngine.DEFAULT_ROWS,
+                "###.......",
+                "##....####",
+                "###.######"));
+        for (int i = 0; i < length; i++) {
+            assertTrue(Input.apply(engine, path[i]), "input " + i);
+        }
+        Tetromino piece = engine.getCurrentTetromino();
+        assertEquals(3, piece.getRotation());
+        assertEquals(2, piece.getX());
+        assertEquals(17, piece.getY());
+        engine.hardDrop();
+        assertEquals(1, engine.getLinesCleared());
+        assertEquals(1, engine.getStats().getTSpins(1));
+    }
+
+    @Test
+    void lockStatesIncludeEveryHardDropPlacement() {
+        TetrisGrid grid = Boards.of(
+                "#.........",
+                "##..#....#",
+                "###.##.###");
+        int[] placements = new int[PlacementGenerator.maxPlacements(grid.getCols())];
+        for (ShapeType type : ShapeType.values()) {
+            int count = generator.generate(grid, type, 0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y, states);
+            Set<Integer> locks = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                int state = states[i];
+                Orientation orientation = RotationTable.get(type, generator.rotationOf(state));
+                int x = generator.xOf(state);
+                int y = generator.yOf(state);
+                assertTrue(grid.isValidMove(orientation.getRowMasks(), orientation.getWidth(), x, y));
+                assertFalse(grid.isValidMove(orientation.getRowMasks(), orientation.getWidth(), x, y + 1));
+                assertTrue(locks.add(PlacementGenerator.pack(generator.rotationOf(state), x, y)), "duplicate");
+            }
+            int drops = new PlacementGenerator().generate(grid, type, placements);
+            for (int i = 0; i < drops; i++) {
+                assertTrue(locks.contains(placements[i]), type + " misses a hard drop placement");
+            }
+        }
+    }
+
+    @Test
+    void pathsLeadTheEngineToTheLockState() {
+        Random random = new Random(9);
+        for (int trial = 0; trial < 20; trial++) {
+            int[] masks = new int[GameEngine.DEFAULT_ROWS];
+            for (int row = 12; row < masks.length; row++) {
+                masks[row] = random.nextInt(1 << GameEngine.DEFAULT_COLS) & random.nextInt(1 << GameEngine.DEFAULT_COLS);
+            }
+            for (ShapeType type : ShapeType.values()) {
+                GameEngine engine = new GameEngine(GameEngine.DEFAULT_ROWS, GameEngine.DEFAULT_COLS, () -> type, 0);
+                engine.getGrid().setRowMasks(masks);
+                int count = generator.generate(engine.getGrid(), type, 0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y,
+                        states);
+                for (int i = 0; i < count; i++) {
+                    // 每条路径都从出场位置开始走
+                    assertTrue(engine.moveTo(0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y));
+                    int length = generator.pathTo(states[i], path);
+                    for (int j = 0; j < length; j++) {
+                        assertTrue(Input.apply(engine, path[j]), type + " trial " + trial + " input " + j);
+                    }
+                    Tetromino piece = engine.getCurrentTetromino();
+                    assertEquals(generator.rotationOf(states[i]), piece.getRotation());
+                    assertEquals(generator.xOf(states[i]), piece.getX());
+                    assertEquals(generator.yOf(states[i]), piece.getY());
+                }
+                assertEquals(0, engine.getPiecesPlaced(), "no path locks the piece early");
+            }
+        }
+    }
+
+    private int find(int count, int rotation, int x, int y) {
+        for (int i = 0; i < count; i++) {
+            int state = states[i];
+            if (generator.rotationOf(state) == rotation && generator.xOf(state) == x && generator.yOf(state) == y) {
+                return state;
+            }
+        }
+        return -1;
+    }
+}
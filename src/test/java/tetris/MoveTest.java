@@ -0,0 +1,82 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveTest {
+
+    @Test
+    void packRoundTrips() {
+        long move = Move.pack(3, 9, 19, true, Move.maxInputs(20, 10));
+        assertEquals(3, Move.rotationOf(move));
+        assertEquals(9, Move.xOf(move));
+        assertEquals(19, Move.yOf(move));
+        assertTrue(Move.isHold(move));
+        assertEquals(801, Move.inputLength(move));
+
+        long plain = Move.pack(0, 0, 0, false, 0);
+        assertFalse(Move.isHold(plain));
+        assertNotEquals(Move.NONE, plain);
+    }
+
+    @Test
+    void toPlacementCopiesTheInputs() {
+        byte[] inputs = {Input.HOLD, Input.LEFT, Input.ROTATE_CW, 99};
+        Placement placement = Move.toPlacement(Move.pack(1, 2, 17, true, 3), inputs);
+
+        assertEquals(1, placement.getRotation());
+        assertEquals(2, placement.getX());
+        assertEquals(17, placement.getY());
+        assertTrue(placement.isHold());
+        assertArrayEquals(new byte[]{Input.HOLD, Input.LEFT, Input.ROTATE_CW}, placement.getInputs());
+        inputs[1] = Input.RIGHT;
+        assertEquals(Input.LEFT, placement.getInputs()[1]);
+        assertNull(Move.toPlacement(Move.NONE, inputs));
+    }
+
+    @Test
+    void findMoveWritesTheSameAnswerAsFindBest() {
+        PlacementSearch search = new PlacementSearch();
+        TetrisGrid grid = Boards.of(
+                "#...#.....",
+                "##.###.#.#");
+        Tetromino piece = Boards.piece(ShapeType.L, 0, Tetromino.SPAWN_X, Tetromino.SPAWN_Y);
+        byte[] inputs = new byte[Move.maxInputs(grid.getRows(), grid.getCols())];
+
+        long move = search.findMove(grid, piece, inputs);
+        Placement placement = search.findBest(grid, piece);
+        assertEquals(placement.getRotation(), Move.rotationOf(move));
+        assertEquals(placement.getX(), Move.xOf(move));
+        assertEquals(placement.getY(), Move.yOf(move));
+        byte[] written = new byte[Move.inputLength(move)];
+        System.arraycopy(inputs, 0, written, 0, written.length);
+        assertArrayEquals(placement.getInputs(), written);
+    }
+
+    @Test
+    void gridPoolReusesReleasedGrids() {
+        GridPool pool = new GridPool(20, 10);
+        TetrisGrid source = Boards.of("###.......");
+        TetrisGrid first = pool.copyOf(source);
+        assertEquals(source.getHash(), first.getHash());
+
+        pool.release(first);
+        TetrisGrid second = pool.acquire();
+        assertSame(first, second, "last released grid comes back first");
+        pool.release(second);
+        for (int i = 0; i < 40; i++) {
+            pool.release(new TetrisGrid(20, 10));
+        }
+        for (int i = 0; i < 40; i++) {
+            pool.acquire();
+        }
+        assertSame(first, pool.acquire());
+    }
+}
@@ -0,0 +1,61 @@
+package tetris;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelLookaheadSearchTest {
+
+    // 预算给足，两边都不会被截断
+    private static final long BUDGET = Long.MAX_VALUE / 4;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void deterministicModeMatchesTheSequentialSearch() {
+        LookaheadSearch sequential = new LookaheadSearch(new LinearEvaluator(), 3, 4, BUDGET);
+        ParallelLookaheadSearch parallel = new ParallelLookaheadSearch(LinearEvaluator::new, 3, 4, BUDGET, pool, true);
+        assertTrue(parallel.isDeterministic());
+
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(13L), GameEngine.DEFAULT_PREVIEW);
+        for (int piece = 0; piece < 40 && !engine.isGameOver(); piece++) {
+            Placement expected = sequential.findBest(engine);
+            Placement actual = parallel.findBest(engine);
+            assertEquals(expected.isHold(), actual.isHold(), "piece " + piece);
+            assertEquals(expected.getRotation(), actual.getRotation(), "piece " + piece);
+            assertEquals(expected.getX(), actual.getX(), "piece " + piece);
+            assertEquals(expected.getY(), actual.getY(), "piece " + piece);
+            sequential.playPiece(engine);
+        }
+        assertFalse(engine.isGameOver());
+    }
+
+    @Test
+    void prunedModeStillPlaysLegalMoves() {
+        ParallelLookaheadSearch parallel = new ParallelLookaheadSearch(LinearEvaluator::new, 3, 4, BUDGET, pool, false);
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(14L), GameEngine.DEFAULT_PREVIEW);
+        for (int piece = 0; piece < 40; piece++) {
+            Placement placement = parallel.findBest(engine);
+            assertNotNull(placement);
+            for (byte input : placement.getInputs()) {
+                assertTrue(Input.apply(engine, input), "piece " + piece);
+            }
+            assertEquals(placement.getX(), engine.getCurrentTetromino().getX());
+            assertEquals(placement.getY(), engine.getCurrentTetromino().getY());
+            engine.hardDrop();
+        }
+        assertFalse(engine.isGameOver());
+        assertTrue(engine.getLinesCleared() > 0);
+    }
+}
@@ -0,0 +1,64 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PieceGeneratorTest {
+
+    private static ShapeType[] take(PieceGenerator generator, int count) {
+        ShapeType[] out = new ShapeType[count];
+        for (int i = 0; i < count; i++) {
+            out[i] = generator.next();
+        }
+        return out;
+    }
+
+    @Test
+    void sameSeedGivesTheSameSequence() {
+        for (PieceGenerator.Kind kind : PieceGenerator.Kind.values()) {
+            assertArrayEquals(take(kind.create(77L), 500), take(kind.create(77L), 500), kind.name());
+        }
+        assertFalse(Arrays.equals(take(new BagPieceGenerator(1L), 70), take(new BagPieceGenerator(2L), 70)));
+    }
+
+    @Test
+    void everyBagIsAPermutation() {
+        PieceGenerator generator = new BagPieceGenerator(3L);
+        int types = ShapeType.values().length;
+        for (int bag = 0; bag < 200; bag++) {
+            EnumSet<ShapeType> seen = EnumSet.noneOf(ShapeType.class);
+            for (int i = 0; i < types; i++) {
+                assertTrue(seen.add(generator.next()), "bag " + bag + " repeats a piece");
+            }
+            assertEquals(types, seen.size());
+        }
+    }
+
+    @Test
+    void bulkNextMatchesSingleCalls() {
+        ShapeType[] single = take(new BagPieceGenerator(5L), 40);
+        PieceGenerator bulk = new BagPieceGenerator(5L);
+        ShapeType[] out = new ShapeType[42];
+        // 跨袋子边界的几段长度
+        bulk.next(out, 2, 3);
+        bulk.next(out, 5, 11);
+        bulk.next(out, 16, 26);
+        assertArrayEquals(single, Arrays.copyOfRange(out, 2, 42));
+    }
+
+    @Test
+    void uniformGeneratorCoversEveryShape() {
+        EnumSet<ShapeType> seen = EnumSet.noneOf(ShapeType.class);
+        for (ShapeType type : take(new UniformPieceGenerator(8L), 200)) {
+            seen.add(type);
+        }
+        assertEquals(EnumSet.allOf(ShapeType.class), seen);
+    }
+}
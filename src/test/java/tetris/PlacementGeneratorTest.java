@@ -0,0 +1,109 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlacementGeneratorTest {
+
+    @Test
+    void packRoundTrips() {
+        int placement = PlacementGenerator.pack(3, 9, 19);
+        assertEquals(3, PlacementGenerator.rotationOf(placement));
+        assertEquals(9, PlacementGenerator.xOf(placement));
+        assertEquals(19, PlacementGenerator.yOf(placement));
+    }
+
+    @Test
+    void landingRowMatchesDroppingRowByRow() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 200; trial++) {
+            TetrisGrid grid = randomBoard(random);
+            for (ShapeType type : ShapeType.values()) {
+                for (int rotation = 0; rotation < RotationTable.count(type); rotation++) {
+                    Orientation orientation = RotationTable.get(type, rotation);
+                    for (int x = 0; x <= grid.getCols() - orientation.getWidth(); x++) {
+                        assertEquals(scanLandingRow(grid, orientation, x),
+                                PlacementGenerator.landingRow(grid, orientation, x),
+                                type + " r" + rotation + " x" + x + " trial " + trial);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void generateListsEveryColumnOfEveryOrientationOnce() {
+        TetrisGrid grid = Boards.of(
+                "#.........",
+                "##...#...#");
+        int[] out = new int[PlacementGenerator.maxPlacements(grid.getCols())];
+        PlacementGenerator generator = new PlacementGenerator();
+
+        for (ShapeType type : ShapeType.values()) {
+            int expected = 0;
+            for (int rotation = 0; rotation < RotationTable.count(type); rotation++) {
+                expected += grid.getCols() - RotationTable.get(type, rotation).getWidth() + 1;
+            }
+            int count = generator.generate(grid, type, out);
+            assertEquals(expected, count, type.name());
+
+            Set<Integer> seen = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                int rotation = PlacementGenerator.rotationOf(out[i]);
+                int x = PlacementGenerator.xOf(out[i]);
+                int y = PlacementGenerator.yOf(out[i]);
+                assertTrue(seen.add(rotation << 8 | x), "duplicate placement");
+                Orientation orientation = RotationTable.get(type, rotation);
+                assertTrue(grid.isValidMove(orientation.getRowMasks(), orientation.getWidth(), x, y));
+                assertFalse(grid.isValidMove(orientation.getRowMasks(), orientation.getWidth(), x, y + 1),
+                        "placement must rest on something");
+            }
+        }
+    }
+
+    @Test
+    void landingRowIsNegativeWhenTheColumnIsFull() {
+        String[] rows = new String[GameEngine.DEFAULT_ROWS];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = "#.........";
+        }
+        TetrisGrid grid = Boards.of(rows);
+        assertTrue(PlacementGenerator.landingRow(grid, RotationTable.get(ShapeType.O, 0), 0) < 0);
+        assertEquals(GameEngine.DEFAULT_ROWS - 2,
+                PlacementGenerator.landingRow(grid, RotationTable.get(ShapeType.O, 0), 1));
+    }
+
+    // 旧的做法：从顶上一行一行往下试
+    private static int scanLandingRow(TetrisGrid grid, Orientation orientation, int x) {
+        int y = 0;
+        while (grid.isValidMove(orientation.getRowMasks(), orientation.getWidth(), x, y + 1)) {
+            y++;
+        }
+        return y;
+    }
+
+    // 随机高度的堆叠，里面带洞和悬空，上面至少留 4 行空
+    private static TetrisGrid randomBoard(Random random) {
+        int rows = GameEngine.DEFAULT_ROWS;
+        int cols = GameEngine.DEFAULT_COLS;
+        int[] masks = new int[rows];
+        for (int col = 0; col < cols; col++) {
+            int height = random.nextInt(rows - 4);
+            for (int row = rows - height; row < rows; row++) {
+                if (random.nextInt(4) != 0) {
+                    masks[row] |= 1 << col;
+                }
+            }
+        }
+        TetrisGrid grid = new TetrisGrid(rows, cols);
+        grid.setRowMasks(masks);
+        return grid;
+    }
+}
@@ -0,0 +1,123 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayTest {
+
+    // 用 kind + seed + rules 录一局，返回录制时的引擎
+    private static GameEngine record(Path file, long seed, GameRules rules, int pieces) {
+        GameEngine engine = new GameEngine(20, 10, PieceGenerator.Kind.BAG.create(seed), GameEngine.DEFAULT_PREVIEW,
+                rules);
+        ReplayRecorder recorder = new ReplayRecorder(file, PieceGenerator.Kind.BAG, seed, 20, 10,
+                GameEngine.DEFAULT_PREVIEW, rules);
+        recorder.attach(engine);
+        LookaheadSearch player = new LookaheadSearch(new LinearEvaluator(), 2, 4, Long.MAX_VALUE / 4);
+        while (!engine.isGameOver() && engine.getPiecesPlaced() < pieces) {
+            player.playPiece(engine);
+        }
+        recorder.close();
+        return engine;
+    }
+
+    @Test
+    void varintsRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        int[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE};
+        int[] signed = {0, -1, 1, -64, 64, Integer.MIN_VALUE};
+        for (int v : values) {
+            ReplayFormat.putVarint(buffer, v);
+        }
+        for (int v : signed) {
+            ReplayFormat.putSignedVarint(buffer, v);
+        }
+        buffer.flip();
+        for (int v : values) {
+            assertEquals(v, ReplayFormat.getVarint(buffer));
+        }
+        for (int v : signed) {
+            assertEquals(v, ReplayFormat.getSignedVarint(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void replayReproducesTheRecordedGame(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("game.replay");
+        GameEngine recorded = record(file, 4L, GameRules.DEFAULT, 400);
+        // AI 对局每个方块平均不到 3 字节
+        assertTrue(Files.size(file) < 3 * recorded.getPiecesPlaced(), "size " + Files.size(file));
+
+        ReplayPlayer player = new ReplayPlayer(file);
+        assertEquals(4L, player.getSeed());
+        assertEquals(PieceGenerator.Kind.BAG, player.getKind());
+        GameEngine replayed = player.fastForward();
+
+        assertTrue(player.isFinished());
+        assertEquals(recorded.getPiecesPlaced(), replayed.getPiecesPlaced());
+        assertEquals(recorded.getScore(), replayed.getScore());
+        assertEquals(recorded.getLinesCleared(), replayed.getLinesCleared());
+        assertEquals(recorded.getGrid().getHash(), replayed.getGrid().getHash());
+        assertEquals(recorded.getStats().toString(), replayed.getStats().toString());
+    }
+
+    @Test
+    void replayKeepsNonDefaultRules(@TempDir Path dir) {
+        GameRules rules = new GameRules(7, 300_000_000L, 5);
+        Path file = dir.resolve("level7.replay");
+        GameEngine recorded = record(file, 9L, rules, 150);
+        GameEngine levelOne = record(dir.resolve("level1.replay"), 9L, GameRules.DEFAULT, 150);
+
+        GameEngine replayed = new ReplayPlayer(file).fastForward();
+        assertEquals(7, replayed.getRules().getStartLevel());
+        assertEquals(300_000_000L, replayed.getLockDelayNanos());
+        assertEquals(5, replayed.getMaxLockResets());
+        assertEquals(recorded.getLevel(), replayed.getLevel());
+        assertEquals(recorded.getScore(), replayed.getScore());
+        assertNotEquals(levelOne.getScore(), replayed.getScore(), "score is multiplied by the start level");
+    }
+
+    @Test
+    void stepPlacesOnePieceAtATime(@TempDir Path dir) {
+        Path file = dir.resolve("short.replay");
+        record(file, 5L, GameRules.DEFAULT, 10);
+
+        ReplayPlayer player = new ReplayPlayer(file);
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(player.step());
+            assertEquals(i, player.getEngine().getPiecesPlaced());
+        }
+        assertFalse(player.step(), "end marker");
+        assertTrue(player.isFinished());
+        assertFalse(player.step());
+    }
+
+    @Test
+    void detectsReplaysThatDoNotMatch(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("game.replay");
+        record(file, 6L, GameRules.DEFAULT, 30);
+        byte[] bytes = Files.readAllBytes(file);
+
+        // 改掉种子（魔数 4 字节、版本 1 字节、出块规则 1 字节之后）：方块序列对不上
+        bytes[6] ^= 1;
+        Path wrongSeed = dir.resolve("seed.replay");
+        Files.write(wrongSeed, bytes);
+        assertThrows(IllegalStateException.class, () -> new ReplayPlayer(wrongSeed).fastForward());
+
+        bytes[0] = 'X';
+        Path notReplay = dir.resolve("bad.replay");
+        Files.write(notReplay, bytes);
+        assertThrows(IllegalStateException.class, () -> new ReplayPlayer(notReplay));
+    }
+}
@@ -0,0 +1,101 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RotationTableTest {
+
+    @Test
+    void symmetricShapesKeepOnlyDistinctOrientations() {
+        assertEquals(1, RotationTable.count(ShapeType.O));
+        assertEquals(2, RotationTable.count(ShapeType.I));
+        assertEquals(2, RotationTable.count(ShapeType.S));
+        assertEquals(2, RotationTable.count(ShapeType.Z));
+        assertEquals(4, RotationTable.count(ShapeType.T));
+        assertEquals(4, RotationTable.count(ShapeType.L));
+        assertEquals(4, RotationTable.count(ShapeType.J));
+    }
+
+    @Test
+    void orientationsAreDistinctAndFollowClockwiseRotation() {
+        for (ShapeType type : ShapeType.values()) {
+            int count = RotationTable.count(type);
+            for (int r = 0; r < count; r++) {
+                int[][] matrix = RotationTable.get(type, r).getMatrix();
+                assertEquals(r, RotationTable.indexOf(type, matrix));
+                // 顺时针转一次就是下一个朝向，转完一圈回到第一个
+                int[][] next = RotationTable.get(type, (r + 1) % count).getMatrix();
+                assertArrayEquals(next, rotateClockwise(matrix), type + " rotation " + r);
+                for (int other = r + 1; other < count; other++) {
+                    assertFalse(Arrays.deepEquals(matrix, RotationTable.get(type, other).getMatrix()),
+                            type + " rotations " + r + " and " + other + " are the same");
+                }
+            }
+        }
+    }
+
+    @Test
+    void precomputedMasksAndProfilesMatchTheMatrix() {
+        for (ShapeType type : ShapeType.values()) {
+            for (int r = 0; r < RotationTable.count(type); r++) {
+                Orientation orientation = RotationTable.get(type, r);
+                int[][] matrix = orientation.getMatrix();
+                int cells = 0;
+                for (int row = 0; row < orientation.getHeight(); row++) {
+                    for (int col = 0; col < orientation.getWidth(); col++) {
+                        boolean filled = matrix[row][col] == 1;
+                        assertEquals(filled, (orientation.getRowMasks()[row] & (1 << col)) != 0);
+                        if (filled) {
+                            cells++;
+                        }
+                    }
+                }
+                assertEquals(4, cells);
+                for (int col = 0; col < orientation.getWidth(); col++) {
+                    assertEquals(1, matrix[orientation.getTop(col)][col]);
+                    assertEquals(1, matrix[orientation.getBottom(col)][col]);
+                    for (int row = orientation.getBottom(col) + 1; row < orientation.getHeight(); row++) {
+                        assertEquals(0, matrix[row][col]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void tetrominoSharesTheTableAndCyclesThroughIt() {
+        Tetromino piece = new Tetromino(ShapeType.T, 0);
+        for (int i = 0; i < 4; i++) {
+            assertSame(RotationTable.get(ShapeType.T, i), piece.getOrientation());
+            piece.rotate();
+        }
+        assertEquals(0, piece.getRotation());
+        piece.rotateBack();
+        assertEquals(3, piece.getRotation());
+    }
+
+    @Test
+    void unknownMatrixIsRejected() {
+        int[][] notAT = {{1, 1, 1}, {1, 0, 0}};
+        assertEquals(-1, RotationTable.indexOf(ShapeType.T, notAT));
+        Tetromino piece = new Tetromino(ShapeType.T, 0);
+        assertThrows(IllegalArgumentException.class, () -> piece.setShapeMatrix(notAT));
+    }
+
+    private static int[][] rotateClockwise(int[][] matrix) {
+        int[][] rotated = new int[matrix[0].length][matrix.length];
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = 0; j < matrix[0].length; j++) {
+                rotated[j][matrix.length - i - 1] = matrix[i][j];
+            }
+        }
+        return rotated;
+    }
+}
@@ -0,0 +1,127 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScoringTest {
+
+    @Test
+    void threeCornerRuleTellsFullFromMini() {
+        TetrisGrid full = Boards.of("###.......", "##....####", "###.######");
+        Tetromino piece = Boards.piece(ShapeType.T, 3, 2, 17);
+        assertEquals(Scoring.FULL, Scoring.tSpin(full, piece, true));
+        assertEquals(Scoring.NO_SPIN, Scoring.tSpin(full, piece, false), "last move was not a rotation");
+
+        // 尖端一侧只占了一个角，缺口一侧两个角都占了：mini
+        TetrisGrid mini = Boards.of("##..#.....", "##....####", "###.######");
+        assertEquals(Scoring.MINI, Scoring.tSpin(mini, piece, true));
+
+        // 只占了两个角
+        TetrisGrid open = Boards.of("..........", "##....####", "###.######");
+        assertEquals(Scoring.NO_SPIN, Scoring.tSpin(open, piece, true));
+
+        assertEquals(Scoring.NO_SPIN, Scoring.tSpin(full, Boards.piece(ShapeType.L, 0, 2, 17), true));
+    }
+
+    @Test
+    void clearsAndSpinsAreScoredByTheTable() {
+        GameStats stats = new GameStats();
+        assertEquals(0, stats.onLock(0, Scoring.NO_SPIN, false, 1));
+        assertEquals(300, stats.onLock(1, Scoring.NO_SPIN, false, 3), "multiplied by the level");
+        assertEquals(400, stats.onLock(0, Scoring.FULL, false, 1));
+        assertEquals(100, stats.onLock(0, Scoring.MINI, false, 1));
+        assertEquals(200, stats.onLock(1, Scoring.MINI, false, 1));
+        assertEquals(1, stats.getClears(1));
+        assertEquals(1, stats.getTSpins(0));
+        assertEquals(1, stats.getTSpinMinis(0));
+        assertEquals(1, stats.getTSpinMinis(1));
+        assertEquals(5, stats.getPieces());
+
+        assertEquals(800, Scoring.clearPoints(1, Scoring.FULL, false));
+        assertEquals(1200, Scoring.clearPoints(2, Scoring.FULL, false));
+        assertEquals(1600, Scoring.clearPoints(3, Scoring.FULL, false));
+        assertEquals(800, Scoring.clearPoints(4, Scoring.NO_SPIN, false));
+    }
+
+    @Test
+    void consecutiveClearsBuildACombo() {
+        GameStats stats = new GameStats();
+        assertEquals(100, stats.onLock(1, Scoring.NO_SPIN, false, 1));
+        assertEquals(300 + 50, stats.onLock(2, Scoring.NO_SPIN, false, 1));
+        assertEquals(100 + 100, stats.onLock(1, Scoring.NO_SPIN, false, 1));
+        assertEquals(2, stats.getCombo());
+        // 一个不消行的方块就断了
+        stats.onLock(0, Scoring.NO_SPIN, false, 1);
+        assertEquals(-1, stats.getCombo());
+        assertEquals(100, stats.onLock(1, Scoring.NO_SPIN, false, 1));
+        assertEquals(2, stats.getComboClears());
+        assertEquals(2, stats.getMaxCombo());
+    }
+
+    @Test
+    void difficultClearsInARowGetBackToBack() {
+        GameStats stats = new GameStats();
+        assertEquals(800, stats.onLock(4, Scoring.NO_SPIN, false, 1));
+        stats.onLock(0, Scoring.NO_SPIN, false, 1);
+        // 中间不消行不打断背靠背：T-spin double 乘 1.5
+        assertEquals(1800, stats.onLock(2, Scoring.FULL, false, 1));
+        stats.onLock(0, Scoring.FULL, false, 1);
+        assertEquals(1200, stats.onLock(4, Scoring.NO_SPIN, false, 1), "spin without lines keeps the chain");
+        stats.onLock(0, Scoring.NO_SPIN, false, 1);
+        // mini 也算难消除
+        assertEquals(300, stats.onLock(1, Scoring.MINI, false, 1));
+        assertEquals(3, stats.getBackToBacks());
+        assertEquals(3, stats.getMaxBackToBack());
+
+        // 普通消行打断
+        assertEquals(300 + 50, stats.onLock(2, Scoring.NO_SPIN, false, 1));
+        assertEquals(800 + 100, stats.onLock(4, Scoring.NO_SPIN, false, 1));
+        assertEquals(3, stats.getBackToBacks());
+    }
+
+    @Test
+    void perfectClearsAddABonus() {
+        GameStats stats = new GameStats();
+        assertEquals(300 + 1200, stats.onLock(2, Scoring.NO_SPIN, true, 1));
+
+        stats = new GameStats();
+        assertEquals((800 + 2000) * 2, stats.onLock(4, Scoring.NO_SPIN, true, 2));
+        stats.onLock(0, Scoring.NO_SPIN, false, 1);
+        assertEquals(1200 + 3200, stats.onLock(4, Scoring.NO_SPIN, true, 1), "back-to-back perfect tetris");
+        assertEquals(2, stats.getPerfectClears());
+    }
+
+    @Test
+    void engineScoresAPerfectClear() {
+        // 五个 O 铺满两行，消完盘面是空的
+        GameEngine engine = new GameEngine(20, 10, () -> ShapeType.O, GameEngine.DEFAULT_PREVIEW);
+        for (int x = 0; x < 10; x += 2) {
+            engine.place(0, x);
+        }
+        assertEquals(2, engine.getLinesCleared());
+        assertEquals(1, engine.getStats().getPerfectClears());
+        assertEquals(1, engine.getStats().getClears(2));
+        assertEquals(300 + 1200, engine.getScore());
+    }
+
+    @Test
+    void statsMerge() {
+        GameStats a = new GameStats();
+        a.onLock(4, Scoring.NO_SPIN, false, 1);
+        a.onLock(4, Scoring.NO_SPIN, false, 1);
+        GameStats b = new GameStats();
+        b.onLock(1, Scoring.FULL, false, 1);
+        b.onLock(1, Scoring.NO_SPIN, false, 1);
+        b.onLock(1, Scoring.NO_SPIN, false, 1);
+
+        a.merge(b);
+        assertEquals(5, a.getPieces());
+        assertEquals(2, a.getClears(4));
+        assertEquals(2, a.getClears(1));
+        assertEquals(1, a.getTSpins(1));
+        assertEquals(1, a.getBackToBacks());
+        assertEquals(3, a.getComboClears());
+        assertEquals(2, a.getMaxCombo());
+    }
+}
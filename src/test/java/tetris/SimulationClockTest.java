@@ -0,0 +1,141 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationClockTest {
+
+    private static final long TICK = SimulationClock.TICK_NANOS;
+    private static final BooleanSupplier NEVER = () -> false;
+
+    // 记下每一步的模拟时间
+    private static final class Steps implements LongPredicate {
+        final List<Long> times = new ArrayList<>();
+
+        @Override
+        public boolean test(long simulatedNanos) {
+            times.add(simulatedNanos);
+            return true;
+        }
+    }
+
+    @Test
+    void firstFrameOnlyTakesTheReference() {
+        SimulationClock clock = new SimulationClock();
+        Steps steps = new Steps();
+        assertFalse(clock.advance(5_000_000_000L, steps, NEVER));
+        assertTrue(steps.times.isEmpty());
+        assertEquals(0, clock.getSimulatedNanos());
+    }
+
+    @Test
+    void stepsFollowRealTimeAtNormalSpeed() {
+        SimulationClock clock = new SimulationClock();
+        Steps steps = new Steps();
+        clock.advance(0, steps, NEVER);
+        assertTrue(clock.advance(3 * TICK, steps, NEVER));
+        assertEquals(List.of(TICK, 2 * TICK, 3 * TICK), steps.times);
+
+        // 不满一步的时间攒到下一帧
+        assertFalse(clock.advance(3 * TICK + TICK / 2, steps, NEVER));
+        assertTrue(clock.advance(4 * TICK + 1, steps, NEVER));
+        assertEquals(4, steps.times.size());
+        assertEquals(4 * TICK, clock.getSimulatedNanos());
+    }
+
+    @Test
+    void speedMultipliesTheSteps() {
+        SimulationClock clock = new SimulationClock();
+        clock.setSpeed(4);
+        Steps steps = new Steps();
+        clock.advance(0, steps, NEVER);
+        clock.advance(TICK, steps, NEVER);
+        assertEquals(4, steps.times.size());
+
+        clock.setSpeed(0.5);
+        clock.advance(2 * TICK, steps, NEVER);
+        assertEquals(4, steps.times.size());
+        clock.advance(3 * TICK, steps, NEVER);
+        assertEquals(5, steps.times.size());
+
+        assertThrows(IllegalArgumentException.class, () -> clock.setSpeed(0));
+        assertThrows(IllegalArgumentException.class, () -> clock.setSpeed(-2));
+        assertThrows(IllegalArgumentException.class, () -> clock.setSpeed(Double.NaN));
+    }
+
+    @Test
+    void longFramesAndPausesAreNotCaughtUp() {
+        SimulationClock clock = new SimulationClock();
+        Steps steps = new Steps();
+        clock.advance(0, steps, NEVER);
+        // 一帧最多按 100ms 算
+        clock.advance(1_000_000_000L, steps, NEVER);
+        assertEquals(6, steps.times.size());
+
+        clock.resync();
+        clock.advance(60_000_000_000L, steps, NEVER);
+        clock.advance(60_000_000_000L + 2 * TICK, steps, NEVER);
+        assertEquals(8, steps.times.size(), "the pause is not simulated");
+    }
+
+    @Test
+    void blockedClockStopsWithoutBuildingDebt() {
+        SimulationClock clock = new SimulationClock();
+        Steps steps = new Steps();
+        clock.advance(0, steps, NEVER);
+        assertFalse(clock.advance(10 * TICK, steps, () -> true));
+        assertTrue(steps.times.isEmpty());
+
+        // 等到了也只补一步，不会一下跳过十步
+        clock.advance(10 * TICK, steps, NEVER);
+        assertEquals(List.of(TICK), steps.times);
+    }
+
+    @Test
+    void fastForwardWaitsForTheDecisionWithinTheFrame() {
+        // 第一次等待会触发类加载，可能吃掉整帧的预算：先用另一个时钟空等一帧
+        SimulationClock warmUp = new SimulationClock();
+        warmUp.setSpeed(10);
+        warmUp.advance(0, t -> true, NEVER);
+        warmUp.advance(TICK, t -> true, () -> true);
+
+        SimulationClock clock = new SimulationClock();
+        clock.setSpeed(10);
+        Steps steps = new Steps();
+        int[] polls = {0};
+        // 前几次询问都在等 AI，之后放行
+        BooleanSupplier blocked = () -> polls[0]++ < 3;
+        clock.advance(0, steps, blocked);
+        clock.advance(TICK, steps, blocked);
+        assertEquals(10, steps.times.size());
+    }
+
+    @Test
+    void unlimitedSpeedRunsUntilTheFrameBudget() {
+        SimulationClock clock = new SimulationClock();
+        clock.setSpeed(Double.POSITIVE_INFINITY);
+        assertTrue(clock.isUnlimited());
+        long[] count = {0};
+        clock.advance(0, t -> true, NEVER);
+        long start = System.nanoTime();
+        assertTrue(clock.advance(0, t -> ++count[0] > 0, NEVER));
+        long spent = System.nanoTime() - start;
+
+        assertTrue(count[0] > 100, "steps " + count[0]);
+        assertEquals(count[0] * TICK, clock.getSimulatedNanos());
+        assertTrue(spent >= SimulationClock.FRAME_BUDGET_NANOS, "spent " + spent);
+
+        // 一直等不到决策：花完预算就返回
+        assertFalse(clock.advance(0, t -> true, () -> true));
+        assertEquals(count[0] * TICK, clock.getSimulatedNanos());
+    }
+}
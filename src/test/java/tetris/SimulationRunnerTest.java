@@ -0,0 +1,56 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationRunnerTest {
+
+    @Test
+    void seedsDependOnlyOnBaseSeedAndIndex() {
+        Set<Long> seeds = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(SimulationRunner.seedFor(5L, i), SimulationRunner.seedFor(5L, i));
+            seeds.add(SimulationRunner.seedFor(5L, i));
+        }
+        assertEquals(1000, seeds.size(), "every game gets its own seed");
+        assertTrue(SimulationRunner.seedFor(5L, 0) != SimulationRunner.seedFor(6L, 0));
+    }
+
+    @Test
+    void playGameStopsAtMaxPieces() {
+        GameEngine engine = SimulationRunner.playGame(new PlacementSearch(), 3L, 40);
+        assertEquals(40, engine.getPiecesPlaced());
+        assertTrue(engine.getLinesCleared() > 0);
+    }
+
+    @Test
+    void resultsDoNotDependOnThreadCount() {
+        SimulationRunner.Report single = new SimulationRunner(20, 11L, 60, 1, PlacementSearch::new).run();
+        SimulationRunner.Report parallel = new SimulationRunner(20, 11L, 60, 4, PlacementSearch::new).run();
+
+        assertEquals(single.getScore().toString(), parallel.getScore().toString());
+        assertEquals(single.getLines().toString(), parallel.getLines().toString());
+        assertEquals(single.getPieces().toString(), parallel.getPieces().toString());
+        assertEquals(single.getStats().toString(), parallel.getStats().toString());
+        assertEquals(20 * 60, single.getStats().getPieces());
+    }
+
+    @Test
+    void batchListenerRunsAfterEveryLeafTask() {
+        SimulationRunner runner = new SimulationRunner(20, 11L, 10, 2, PlacementSearch::new);
+        AtomicInteger batches = new AtomicInteger();
+        runner.setBatchListener(player -> {
+            assertTrue(player instanceof PlacementSearch);
+            batches.incrementAndGet();
+        });
+        runner.run();
+        // 每个叶子任务最多 8 局，20 局至少拆成 3 个叶子
+        assertTrue(batches.get() >= 3, "leaf tasks: " + batches.get());
+    }
+}
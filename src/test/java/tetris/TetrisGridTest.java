@@ -0,0 +1,159 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TetrisGridTest {
+
+    @Test
+    void lockSetsRowBitsAndColumnHeights() {
+        TetrisGrid grid = new TetrisGrid(20, 10);
+        grid.lockTetromino(Boards.piece(ShapeType.O, 0, 3, 18));
+
+        assertEquals(0b11000, grid.getRowMask(18));
+        assertEquals(0b11000, grid.getRowMask(19));
+        assertTrue(grid.isOccupied(19, 3));
+        assertFalse(grid.isOccupied(19, 5));
+        assertEquals(2, grid.getColumnHeight(3));
+        assertEquals(2, grid.getColumnHeight(4));
+        assertEquals(0, grid.getColumnHeight(5));
+    }
+
+    @Test
+    void isValidMoveChecksBoundsAndOverlap() {
+        TetrisGrid grid = Boards.of("##........");
+        Tetromino o = Boards.piece(ShapeType.O, 0, 0, 0);
+
+        assertTrue(grid.isValidMove(o, 0, 17));
+        assertFalse(grid.isValidMove(o, 0, 18), "overlaps the filled cells");
+        assertTrue(grid.isValidMove(o, 2, 18));
+        assertFalse(grid.isValidMove(o, -1, 0));
+        assertFalse(grid.isValidMove(o, 9, 0), "sticks out on the right");
+        assertFalse(grid.isValidMove(o, 0, 19), "sticks out at the bottom");
+    }
+
+    @Test
+    void clearFullLinesShiftsRowsAboveDown() {
+        TetrisGrid grid = Boards.of(
+                "#.........",
+                "##########",
+                ".#.#......",
+                "##########");
+
+        assertEquals(2, grid.clearFullLines());
+        assertEquals(0, grid.getRowMask(16));
+        assertEquals(0, grid.getRowMask(17));
+        assertEquals(Boards.mask("#........."), grid.getRowMask(18));
+        assertEquals(Boards.mask(".#.#......"), grid.getRowMask(19));
+        assertEquals(2, grid.getColumnHeight(0));
+        assertEquals(1, grid.getColumnHeight(1));
+        assertEquals(0, grid.getColumnHeight(2));
+    }
+
+    @Test
+    void clearFullLinesWithoutFullRowsChangesNothing() {
+        TetrisGrid grid = Boards.of("#########.");
+        long hash = grid.getHash();
+
+        assertEquals(0, grid.clearFullLines());
+        assertEquals(Boards.mask("#########."), grid.getRowMask(19));
+        assertEquals(hash, grid.getHash());
+    }
+
+    @Test
+    void tetrisClearEmptiesTheBoard() {
+        TetrisGrid grid = Boards.of(
+                "#########.",
+                "#########.",
+                "#########.",
+                "#########.");
+        grid.lockTetromino(Boards.piece(ShapeType.I, 1, 9, 16));
+
+        assertEquals(4, grid.clearFullLines());
+        for (int row = 0; row < grid.getRows(); row++) {
+            assertEquals(0, grid.getRowMask(row));
+        }
+        for (int col = 0; col < grid.getCols(); col++) {
+            assertEquals(0, grid.getColumnHeight(col));
+        }
+        assertEquals(0L, grid.getHash());
+    }
+
+    @Test
+    void gridViewFollowsLocksAndClears() {
+        TetrisGrid grid = Boards.of("########..");
+        int[][] view = grid.getGrid();
+        grid.lockTetromino(Boards.piece(ShapeType.O, 0, 8, 18));
+        grid.clearFullLines();
+
+        for (int row = 0; row < grid.getRows(); row++) {
+            for (int col = 0; col < grid.getCols(); col++) {
+                assertEquals(grid.isOccupied(row, col) ? 1 : 0, view[row][col], "row " + row + " col " + col);
+            }
+        }
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0, 0, 0, 1, 1}, view[19]);
+    }
+
+    @Test
+    void setRowMasksRebuildsHeightsAndHash() {
+        TetrisGrid built = new TetrisGrid(20, 10);
+        built.lockTetromino(Boards.piece(ShapeType.T, 0, 2, 18));
+        built.lockTetromino(Boards.piece(ShapeType.I, 1, 9, 16));
+
+        TetrisGrid loaded = Boards.of(
+                "#####.....",
+                "#####.....");
+        int[][] view = loaded.getGrid();
+        loaded.setRowMasks(Boards.masks(20,
+                "         #",
+                "         #",
+                "   #     #",
+                "  ###    #"));
+
+        for (int row = 0; row < 20; row++) {
+            assertEquals(built.getRowMask(row), loaded.getRowMask(row));
+        }
+        for (int col = 0; col < 10; col++) {
+            assertEquals(built.getColumnHeight(col), loaded.getColumnHeight(col), "column " + col);
+        }
+        assertEquals(built.getHash(), loaded.getHash());
+        assertEquals(1, view[18][3], "grid view synced");
+        assertEquals(0, view[19][0]);
+        assertThrows(IllegalArgumentException.class, () -> loaded.setRowMasks(new int[19]));
+    }
+
+    @Test
+    void copyFromCopiesEverything() {
+        TetrisGrid source = Boards.of(
+                ".#........",
+                "####.#####");
+        TetrisGrid copy = Boards.of("##########");
+        int[][] view = copy.getGrid();
+        copy.copyFrom(source);
+
+        for (int row = 0; row < 20; row++) {
+            assertEquals(source.getRowMask(row), copy.getRowMask(row));
+        }
+        for (int col = 0; col < 10; col++) {
+            assertEquals(source.getColumnHeight(col), copy.getColumnHeight(col));
+        }
+        assertEquals(source.getHash(), copy.getHash());
+        assertEquals(0, view[19][4], "grid view synced");
+        assertEquals(1, view[18][1]);
+
+        // 复制之后两边互不影响
+        copy.lockTetromino(Boards.piece(ShapeType.O, 0, 6, 16));
+        assertEquals(0, source.getRowMask(17));
+        assertThrows(IllegalArgumentException.class, () -> copy.copyFrom(new TetrisGrid(20, 9)));
+    }
+
+    @Test
+    void rejectsBoardsWiderThanAnIntMask() {
+        assertThrows(IllegalArgumentException.class, () -> new TetrisGrid(20, 32));
+    }
+}
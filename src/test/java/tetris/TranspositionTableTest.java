@@ -0,0 +1,113 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranspositionTableTest {
+
+    @Test
+    void incrementalHashMatchesAFreshlyLoadedGrid() {
+        GameEngine engine = new GameEngine(20, 10, new BagPieceGenerator(5L), 0);
+        PlacementSearch player = new PlacementSearch();
+        TetrisGrid fresh = new TetrisGrid(20, 10);
+        int[] masks = new int[20];
+        while (engine.getLinesCleared() < 20 && !engine.isGameOver()) {
+            player.playPiece(engine);
+            TetrisGrid grid = engine.getGrid();
+            for (int row = 0; row < masks.length; row++) {
+                masks[row] = grid.getRowMask(row);
+            }
+            fresh.setRowMasks(masks);
+            assertEquals(fresh.getHash(), grid.getHash(), "after piece " + engine.getPiecesPlaced());
+        }
+        assertTrue(engine.getLinesCleared() >= 20, "the game cleared lines");
+    }
+
+    @Test
+    void hashDependsOnRowPosition() {
+        TetrisGrid low = Boards.of("#.........", "..........");
+        TetrisGrid high = Boards.of("..........", "#.........");
+        assertNotEquals(low.getHash(), high.getHash());
+        assertEquals(0L, Zobrist.rowKey(7, 0));
+    }
+
+    @Test
+    void probeHitsOnlyWithEnoughDepth() {
+        TranspositionTable table = new TranspositionTable(4, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        assertEquals(-1, table.probe(42L, 1));
+
+        table.store(42L, 2, 1.5);
+        int slot = table.probe(42L, 2);
+        assertTrue(slot >= 0);
+        assertEquals(1.5, table.getValue(slot));
+        assertTrue(table.probe(42L, 1) >= 0, "deeper results answer shallower probes");
+        assertEquals(-1, table.probe(42L, 3));
+        assertEquals(2, table.getHits());
+        assertEquals(2, table.getMisses());
+        assertEquals(1, table.getUsed());
+    }
+
+    @Test
+    void depthPreferredKeepsTheDeeperEntry() {
+        TranspositionTable table = new TranspositionTable(4, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        // 同一个槽位的两个键：低 4 位相同
+        long deep = 0x10L;
+        long shallow = 0x20L;
+        table.store(deep, 3, 1.0);
+        table.store(shallow, 1, 2.0);
+
+        assertEquals(1, table.getRejected());
+        assertTrue(table.probe(deep, 3) >= 0);
+        assertEquals(-1, table.probe(shallow, 1));
+        assertEquals(1, table.getCollisions());
+    }
+
+    @Test
+    void alwaysReplaceOverwrites() {
+        TranspositionTable table = new TranspositionTable(4, TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE);
+        table.store(0x10L, 3, 1.0);
+        table.store(0x20L, 1, 2.0);
+
+        assertEquals(-1, table.probe(0x10L, 1));
+        assertEquals(2.0, table.getValue(table.probe(0x20L, 1)));
+        assertEquals(0, table.getRejected());
+    }
+
+    @Test
+    void clearEmptiesTheTable() {
+        TranspositionTable table = new TranspositionTable();
+        table.store(0L, 1, 3.0);
+        assertTrue(table.probe(0L, 1) >= 0, "key 0 is usable");
+
+        table.clear();
+        assertEquals(0, table.getUsed());
+        assertEquals(-1, table.probe(0L, 1));
+        table.resetCounters();
+        assertEquals(0, table.getHits() + table.getMisses() + table.getStores());
+    }
+
+    @Test
+    void rejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TranspositionTable(0, TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TranspositionTable(31, TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE));
+    }
+
+    @Test
+    void searchPlaysTheSameWithAndWithoutTheTable() {
+        long budget = Long.MAX_VALUE / 4;
+        LookaheadSearch cached = new LookaheadSearch(new LinearEvaluator(), 3, 4, budget);
+        LookaheadSearch plain = new LookaheadSearch(new LinearEvaluator(), 3, 4, budget, null);
+
+        GameEngine a = SimulationRunner.playGame(cached, 31L, 100);
+        GameEngine b = SimulationRunner.playGame(plain, 31L, 100);
+        assertEquals(b.getScore(), a.getScore());
+        assertEquals(b.getGrid().getHash(), a.getGrid().getHash());
+        assertTrue(cached.getTranspositionTable().getHits() > 0);
+    }
+}
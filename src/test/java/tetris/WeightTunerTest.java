@@ -0,0 +1,75 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightTunerTest {
+
+    // 小种群、短对局、一层搜索，几秒内跑完
+    private static WeightTuner tuner(Path dir, String checkpoint, int population) {
+        return new WeightTuner(population, 2, 30, 2, 1, 99L, dir.resolve(checkpoint), dir.resolve("weights.properties"));
+    }
+
+    @Test
+    void resumingGivesTheSameResultAsAnUninterruptedRun(@TempDir Path dir) {
+        WeightTuner.Candidate straight = tuner(dir, "straight.txt", 4).run(2);
+
+        tuner(dir, "resumed.txt", 4).run(1);
+        WeightTuner.Candidate resumed = tuner(dir, "resumed.txt", 4).run(2);
+
+        assertEquals(straight.getFitness(), resumed.getFitness());
+        assertArrayEquals(straight.getWeights().toArray(), resumed.getWeights().toArray());
+        assertArrayEquals(resumed.getWeights().toArray(),
+                EvaluatorWeights.load(dir.resolve("weights.properties")).toArray());
+    }
+
+    @Test
+    void finishedCheckpointIsNotBredAgain(@TempDir Path dir) throws IOException {
+        WeightTuner.Candidate first = tuner(dir, "done.txt", 4).run(1);
+        String saved = Files.readString(dir.resolve("done.txt"));
+
+        WeightTuner.Candidate again = tuner(dir, "done.txt", 4).run(1);
+        assertEquals(first.getFitness(), again.getFitness());
+        assertArrayEquals(first.getWeights().toArray(), again.getWeights().toArray());
+        assertEquals(saved, Files.readString(dir.resolve("done.txt")), "checkpoint untouched");
+        assertTrue(saved.contains("generation=1"));
+    }
+
+    @Test
+    void listenerSeesEveryGeneration(@TempDir Path dir) {
+        WeightTuner tuner = tuner(dir, "listen.txt", 4);
+        List<Integer> generations = new ArrayList<>();
+        List<String> reports = new ArrayList<>();
+        tuner.setGenerationListener(t -> {
+            generations.add(t.getGeneration());
+            reports.add(t.generationReport());
+        });
+        tuner.run(2);
+        assertEquals(List.of(0, 1, 2), generations);
+        assertTrue(reports.get(2).startsWith("generation 2 best="), reports.get(2));
+    }
+
+    @Test
+    void rejectsACheckpointForAnotherPopulation(@TempDir Path dir) {
+        tuner(dir, "small.txt", 3).run(0);
+        assertThrows(IllegalStateException.class, () -> tuner(dir, "small.txt", 4).run(1));
+    }
+
+    @Test
+    void rejectsBadParameters(@TempDir Path dir) {
+        assertThrows(IllegalArgumentException.class, () -> tuner(dir, "c.txt", 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WeightTuner(4, 2, 30, 2, 0, 1L, dir.resolve("c.txt"), dir.resolve("w.properties")));
+    }
+}